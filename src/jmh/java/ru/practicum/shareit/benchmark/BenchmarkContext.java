@@ -0,0 +1,43 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+import java.util.stream.Stream;
+
+/**
+ * Контекст приложения без веб-сервера поверх in-memory H2 из профиля test
+ * или поверх PostgreSQL, если переданы свойства из {@link #postgres}.
+ */
+final class BenchmarkContext {
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Свойства для запуска на PostgreSQL вместо H2; логин и пароль берутся из
+     * -Dbench.datasource.username и -Dbench.datasource.password.
+     */
+    static String[] postgres(String url, String... properties) {
+        return Stream.concat(Stream.of(
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.driverClassName=org.postgresql.Driver",
+                        "spring.datasource.username=" + System.getProperty("bench.datasource.username", "postgres"),
+                        "spring.datasource.password=" + System.getProperty("bench.datasource.password", "postgres"),
+                        "spring.sql.init.platform=postgresql"), Stream.of(properties))
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Заполнение БД пакетными вставками с явными id, минуя сервисы и их проверки.
+ * Рассчитано на пустую БД.
+ */
+final class BenchmarkData {
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] WORDS = {
+        "дрель", "перфоратор", "отвёртка", "лестница", "палатка", "велосипед", "самокат", "пила",
+        "шуруповёрт", "болгарка", "рюкзак", "спальник", "удочка", "лодка", "мангал", "проектор"
+    };
+
+    private BenchmarkData() {
+    }
+
+    record Seeded(List<Long> ownerIds, List<Long> bookerIds) {
+    }
+
+    static Seeded seed(ApplicationContext context, int owners, int itemsPerOwner, int bookingsPerItem) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+        int bookers = Math.max(10, owners);
+
+        List<Object[]> users = new ArrayList<>();
+        List<Long> ownerIds = new ArrayList<>();
+        List<Long> bookerIds = new ArrayList<>();
+        for (long id = 1; id <= owners + bookers; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@mail.ru"});
+            (id <= owners ? ownerIds : bookerIds).add(id);
+        }
+        batch(jdbc, "insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        long itemId = 0;
+        long bookingId = 0;
+        long commentId = 0;
+        for (Long ownerId : ownerIds) {
+            for (int i = 0; i < itemsPerOwner; i++) {
+                itemId++;
+                items.add(new Object[]{itemId, name(random), description(random), true, ownerId});
+                for (int b = 0; b < bookingsPerItem; b++) {
+                    LocalDateTime start = now.plusDays((b - bookingsPerItem / 2) * 3L);
+                    Long bookerId = bookerIds.get(random.nextInt(bookerIds.size()));
+                    bookings.add(new Object[]{++bookingId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)),
+                            itemId, bookerId, b % 4 == 0 ? "WAITING" : "APPROVED"});
+                    if (b % 5 == 0) {
+                        comments.add(new Object[]{++commentId, "комментарий " + commentId, itemId, bookerId,
+                                Timestamp.valueOf(start.plusDays(3))});
+                    }
+                }
+            }
+        }
+        batch(jdbc, "insert into items (id, name, description, is_available, owner_id) values (?, ?, ?, ?, ?)", items);
+        batch(jdbc, "insert into bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "values (?, ?, ?, ?, ?, ?)", bookings);
+        batch(jdbc, "insert into comments (id, text, item_id, author_id, created_date) values (?, ?, ?, ?, ?)", comments);
+        advanceBookingSequence(jdbc, bookingId);
+        return new Seeded(ownerIds, bookerIds);
+    }
+
+    /**
+     * Бронирования вставлены с явными id, а Booking берёт id из bookings_seq блоками по 50:
+     * последовательность сдвигается за последний id, иначе первая же вставка через JPA упадёт на ключе.
+     */
+    private static void advanceBookingSequence(JdbcTemplate jdbc, long lastBookingId) {
+        String database = jdbc.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(database)) {
+            jdbc.queryForObject("select setval('bookings_seq', greatest((select last_value from bookings_seq), ?))",
+                    Long.class, lastBookingId + 50);
+        } else {
+            jdbc.execute("alter sequence bookings_seq restart with " + (lastBookingId + 50));
+        }
+    }
+
+    static String name(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + (random.nextInt(900) + 100);
+    }
+
+    static String description(Random random) {
+        return "Хорошая " + WORDS[random.nextInt(WORDS.length)] + " и " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Решения владельца по N ожидающим бронированиям: один пакетный вызов против N вызовов approve.
+ * Перед каждым вызовом бронирования возвращаются в WAITING.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class BookingDecisionBenchmark {
+    @Param({"10", "100", "1000"})
+    private int bookings;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private JdbcTemplate jdbcTemplate;
+    private Long ownerId;
+    private List<Long> bookingIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("decisions");
+        BenchmarkData.Seeded seeded = BenchmarkData.seed(context, 1, bookings, 0);
+        ownerId = seeded.ownerIds().get(0);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookingService = context.getBean(BookingService.class);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        List<Object[]> rows = new ArrayList<>();
+        bookingIds = new ArrayList<>();
+        for (long id = 1; id <= bookings; id++) {
+            rows.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)), id,
+                    seeded.bookerIds().get(0)});
+            bookingIds.add(id);
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "values (?, ?, ?, ?, ?, 'WAITING')", rows);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStatuses() {
+        jdbcTemplate.update("update bookings set status = 'WAITING'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDecisionResultDto> bulkDecision() {
+        List<BookingDecisionDto> decisions = new ArrayList<>(bookingIds.size());
+        for (Long id : bookingIds) {
+            decisions.add(new BookingDecisionDto(id, id % 2 == 0));
+        }
+        return bookingService.decide(ownerId, decisions);
+    }
+
+    @Benchmark
+    public int sequentialApprove() {
+        for (Long id : bookingIds) {
+            bookingService.approve(ownerId, id, id % 2 == 0);
+        }
+        return bookingIds.size();
+    }
+}
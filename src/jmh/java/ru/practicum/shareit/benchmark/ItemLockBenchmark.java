@@ -0,0 +1,89 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.lock.ItemLockManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность записи бронирований при 1, 8 и 64 «горячих» вещах: транзакция
+ * захватывает блокировку вещи и держит её до коммита, пока выполняется фиксированная работа.
+ * Меряется только блокировка, без чтения и записи бронирований.
+ *
+ * <p>По умолчанию меряется lockMode=jvm на H2. Для lockMode=advisory нужен PostgreSQL:
+ * каждая транзакция берёт pg_advisory_xact_lock, так что в результат входят обращение к БД
+ * и очередь на блокировку в ней. Таблицы бенчмарк не трогает. Запуск:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ItemLockBenchmark -p lockMode=jvm,advisory \
+ *     -jvmArgs -Dbench.datasource.url=jdbc:postgresql://localhost:5432/shareit_bench"
+ * </pre>
+ * Логин и пароль задаются через -Dbench.datasource.username и -Dbench.datasource.password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(ItemLockBenchmark.THREADS)
+@Fork(1)
+public class ItemLockBenchmark {
+    static final int THREADS = 16;
+
+    @Param({"1", "8", "64"})
+    private int hotItems;
+
+    @Param({"jvm"})
+    private String lockMode;
+
+    private ConfigurableApplicationContext context;
+    private ItemLockManager lockManager;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("bench.datasource.url");
+        if (url == null && lockMode.equals("advisory")) {
+            throw new IllegalStateException("Для lockMode=advisory нужен PostgreSQL: задайте -Dbench.datasource.url");
+        }
+        String[] properties = {
+                "shareit.booking.lock.mode=" + lockMode,
+                "spring.datasource.hikari.maximum-pool-size=" + THREADS
+        };
+        context = url == null
+                ? BenchmarkContext.start("lock", properties)
+                : BenchmarkContext.start("lock", BenchmarkContext.postgres(url, properties));
+        lockManager = context.getBean(ItemLockManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void lockedWrite() {
+        long itemId = ThreadLocalRandom.current().nextInt(hotItems) + 1;
+        transactionTemplate.executeWithoutResult(status -> {
+            lockManager.lock(itemId);
+            Blackhole.consumeCPU(1000);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка поиска вещей в зависимости от их числа. Ожидается, что jpa растёт линейно,
+ * а memory остаётся почти постоянной.
+ *
+ * <p>По умолчанию меряются только jpa и memory: им хватает H2. Для trigram нужен PostgreSQL,
+ * на котором уже есть расширение pg_trgm (см. раздел «Поиск вещей» в README) или пользователь
+ * бенчмарка может его создать; индексы из schema-postgresql-trigram.sql создаются при старте контекста.
+ * Данные засеваются с фиксированными id, поэтому база нужна отдельная и пустая: после каждого
+ * прогона её таблицы очищаются. Запуск:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ItemSearchBenchmark -p engine=jpa,trigram \
+ *     -jvmArgs -Dbench.datasource.url=jdbc:postgresql://localhost:5432/shareit_bench"
+ * </pre>
+ * Логин и пароль задаются через -Dbench.datasource.username и -Dbench.datasource.password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSearchBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int items;
+
+    @Param({"jpa", "memory"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private ItemSearchEngine searchEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("bench.datasource.url");
+        if (url == null && engine.equals("trigram")) {
+            throw new IllegalStateException("Для engine=trigram нужен PostgreSQL: задайте -Dbench.datasource.url");
+        }
+        context = url == null
+                ? BenchmarkContext.start("search", "shareit.search.engine=" + engine)
+                : BenchmarkContext.start("search",
+                        BenchmarkContext.postgres(url, "shareit.search.engine=" + engine));
+        BenchmarkData.seed(context, 1, items, 0);
+        searchEngine = context.getBean(ItemSearchEngine.class);
+        if (searchEngine instanceof InMemoryItemSearchEngine memory) {
+            memory.rebuild();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (System.getProperty("bench.datasource.url") != null) {
+            context.getBean(JdbcTemplate.class).execute("truncate table comments, bookings, items, users cascade");
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> singleTerm() {
+        return searchEngine.search("дрель", 0, 20);
+    }
+
+    @Benchmark
+    public List<ItemDto> twoTerms() {
+        return searchEngine.search("хорошая палатка", 0, 20);
+    }
+}
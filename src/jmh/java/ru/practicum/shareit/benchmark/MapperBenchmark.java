@@ -0,0 +1,93 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemResponseMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Мапперы и сериализация ответов. Для контроля аллокаций запускать с -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"20", "1000"})
+    private int listSize;
+
+    private Booking booking;
+    private Item item;
+    private Comment comment;
+    private List<BookingResponseDto> bookings;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1L, "owner@mail.ru", "Owner");
+        User booker = new User(2L, "booker@mail.ru", "Booker");
+        item = new Item(1L, "Дрель", "Простая дрель", true, owner, null, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        booking = new Booking(1L, item, booker, start, start.plusDays(2), BookingStatus.APPROVED, null);
+        comment = new Comment(1L, "Отличная дрель", item, booker, LocalDateTime.now());
+
+        bookings = new ArrayList<>(listSize);
+        for (long i = 0; i < listSize; i++) {
+            bookings.add(BookingMapper.toBookingResponseDto(
+                    new Booking(i, item, booker, start.plusDays(i), start.plusDays(i + 1), BookingStatus.WAITING, null)));
+        }
+
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingToResponseDto() {
+        return BookingMapper.toBookingResponseDto(booking);
+    }
+
+    @Benchmark
+    public ItemResponseDto itemToResponseDto() {
+        return ItemResponseMapper.toItemResponseDto(item);
+    }
+
+    @Benchmark
+    public CommentDto commentToDto() {
+        return CommentMapper.toCommentDto(comment);
+    }
+
+    @Benchmark
+    public byte[] serializeBookingList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+}
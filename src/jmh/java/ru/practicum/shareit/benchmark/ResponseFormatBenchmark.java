@@ -0,0 +1,104 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.protobuf.BookingProtobuf;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Размер и время сериализации ответа GET /bookings/owner из 1000 бронирований в JSON, CBOR и protobuf.
+ * Размер тела в байтах — вспомогательный счётчик payloadBytes; аллокации — с -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+    @Param({"json", "cbor", "protobuf"})
+    private String format;
+
+    @Param({"1000"})
+    private int listSize;
+
+    private List<BookingResponseDto> bookings;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private ByteArrayOutputStream buffer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        private long bytes;
+        private long calls;
+
+        void record(int size) {
+            bytes += size;
+            calls++;
+        }
+
+        public double payloadBytes() {
+            return calls == 0 ? 0 : (double) bytes / calls;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        bookings = new ArrayList<>(listSize);
+        for (long i = 0; i < listSize; i++) {
+            User booker = new User(1000 + i % 50, "booker" + i % 50 + "@mail.ru", "Booker");
+            Item item = new Item(1 + i % 20, "Дрель ударная " + i % 20, "Дрель", true, null, null, null);
+            bookings.add(BookingMapper.toBookingResponseDto(new Booking(i + 1, item, booker,
+                    start.plusHours(i), start.plusHours(i + 2), BookingStatus.values()[(int) (i % 4)], null)));
+        }
+
+        jsonMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cborMapper = new ObjectMapper(new CBORFactory())
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        buffer = new ByteArrayOutputStream(256 * 1024);
+    }
+
+    @Benchmark
+    public int serializeOwnerBookings(Payload payload) throws IOException {
+        buffer.reset();
+        switch (format) {
+            case "json" -> jsonMapper.writeValue(buffer, bookings);
+            case "cbor" -> cborMapper.writeValue(buffer, bookings);
+            default -> BookingProtobuf.writeList(bookings, buffer);
+        }
+        payload.record(buffer.size());
+        return buffer.size();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.config.SqlStatementCounter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL-запросы и время на вызов с кэшем второго уровня для User и Item и без него.
+ * Число запросов на вызов выводится вспомогательным счётчиком sqlStatementsPerCall.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+    @Param({"false", "true"})
+    private boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private Long ownerId;
+    private Long bookerId;
+    private long itemId;
+    private LocalDateTime nextStart;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        private long statements;
+        private long calls;
+
+        void record(int count) {
+            statements += count;
+            calls++;
+        }
+
+        public double sqlStatementsPerCall() {
+            return calls == 0 ? 0 : (double) statements / calls;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("l2-" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache);
+        BenchmarkData.Seeded seeded = BenchmarkData.seed(context, 10, 50, 20);
+        ownerId = seeded.ownerIds().get(0);
+        bookerId = seeded.bookerIds().get(0);
+        itemId = 1L;
+        nextStart = LocalDateTime.now().plusYears(1);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingPage ownerBookings(Statements statements) {
+        SqlStatementCounter.start();
+        try {
+            return bookingService.getOwnerBookings(ownerId, "ALL", 0, 20, null);
+        } finally {
+            statements.record(SqlStatementCounter.stop());
+        }
+    }
+
+    @Benchmark
+    public BookingResponseDto createBooking(Statements statements) {
+        LocalDateTime start = nextStart;
+        nextStart = start.plusHours(2);
+        SqlStatementCounter.start();
+        try {
+            return bookingService.create(bookerId, new BookingDto(null, itemId, start, start.plusHours(1), null));
+        } finally {
+            statements.record(SqlStatementCounter.stop());
+        }
+    }
+}
@@ -2,10 +2,24 @@ package ru.practicum.shareit.booking.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.BookingEventStream;
+import ru.practicum.shareit.etag.RepresentationETags;
 
 import java.util.List;
 
@@ -15,7 +29,12 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingEventStream bookingEventStream;
+    private final RepresentationETags representationETags;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final ResolvableType BOOKING_LIST =
+            ResolvableType.forClassWithGenerics(List.class, BookingResponseDto.class);
 
     @PostMapping
     public BookingResponseDto create(@RequestHeader(USER_ID_HEADER) Long userId,
@@ -23,6 +42,12 @@ public class BookingController {
         return bookingService.create(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBatch(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                   @RequestBody List<BookingDto> bookingDtos) {
+        return bookingService.createBatch(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto approve(@RequestHeader(USER_ID_HEADER) Long userId,
                               @PathVariable Long bookingId,
@@ -30,6 +55,17 @@ public class BookingController {
         return bookingService.approve(userId, bookingId, approved);
     }
 
+    @PatchMapping("/owner/decisions")
+    public List<BookingDecisionResultDto> decide(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                 @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.decide(userId, decisions);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingEventStream.subscribe(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getById(@RequestHeader(USER_ID_HEADER) Long userId,
                               @PathVariable Long bookingId) {
@@ -37,14 +73,50 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getUserBookings(@RequestHeader(USER_ID_HEADER) Long userId,
-                                            @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getUserBookings(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getUserBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                            @RequestParam(defaultValue = "ALL") String state,
+                                            @RequestParam(defaultValue = "0") int from,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @RequestParam(required = false) String cursor,
+                                            WebRequest request) {
+        String etag = bookingService.getUserBookingsETag(userId, state, from, size, cursor);
+        if (request.checkNotModified(representationETags.forRepresentation(etag, request, BOOKING_LIST))) {
+            return null;
+        }
+        return toResponse(bookingService.getUserBookings(userId, state, from, size, cursor));
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getOwnerBookings(@RequestHeader(USER_ID_HEADER) Long userId,
-                                             @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getOwnerBookings(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getOwnerBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                             @RequestParam(defaultValue = "ALL") String state,
+                                             @RequestParam(defaultValue = "0") int from,
+                                             @RequestParam(defaultValue = "20") int size,
+                                             @RequestParam(required = false) String cursor,
+                                             WebRequest request) {
+        String etag = bookingService.getOwnerBookingsETag(userId, state, from, size, cursor);
+        if (request.checkNotModified(representationETags.forRepresentation(etag, request, BOOKING_LIST))) {
+            return null;
+        }
+        return toResponse(bookingService.getOwnerBookings(userId, state, from, size, cursor));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                                     @RequestParam(defaultValue = "ndjson") String format) {
+        BookingExportFormat exportFormat = bookingService.prepareOwnerExport(userId, format);
+        StreamingResponseBody body = out -> bookingService.exportOwnerBookings(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookings." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> toResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+public interface BookingOwnershipView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    Long getBookerId();
+
+    BookingStatus getStatus();
+}
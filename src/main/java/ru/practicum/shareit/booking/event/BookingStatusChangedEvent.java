@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+@Data
+@AllArgsConstructor
+public class BookingStatusChangedEvent {
+    private Long bookingId;
+    private Long itemId;
+    private Long bookerId;
+    private Long ownerId;
+    private BookingStatus status;
+}
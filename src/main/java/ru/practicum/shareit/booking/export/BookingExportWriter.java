@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.enums.BookingExportFormat;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Пишет строки выгрузки по одной сразу в выходной поток: в памяти держится только текущая
+ * строка и буфер записи, так что расход памяти не зависит от числа бронирований.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingExportWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,start,end,status,bookerId,itemId,itemName";
+
+    private final ObjectMapper objectMapper;
+
+    public void write(Stream<BookingView> rows, BookingExportFormat format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            switch (format) {
+                case CSV -> writeCsv(rows.iterator(), writer);
+                case NDJSON -> writeNdjson(rows.iterator(), writer);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeNdjson(Iterator<BookingView> rows, Writer writer) throws IOException {
+        // с FLUSH_AFTER_WRITE_VALUE (по умолчанию) каждая строка уходила бы в сокет отдельно
+        SequenceWriter values = objectMapper.writerFor(BookingResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(writer);
+        boolean empty = true;
+        while (rows.hasNext()) {
+            values.write(BookingMapper.toBookingResponseDto(rows.next()));
+            empty = false;
+        }
+        values.flush();
+        if (!empty) {
+            writer.write('\n');
+        }
+    }
+
+    private void writeCsv(Iterator<BookingView> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            BookingView row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getStart()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getEnd()));
+            writer.write(',');
+            writer.write(row.getStatus().name());
+            writer.write(',');
+            writer.write(String.valueOf(row.getBookerId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getItemId()));
+            writer.write(',');
+            writeCsvField(row.getItemName(), writer);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Поле с запятой, кавычкой или переводом строки берётся в кавычки, кавычки внутри удваиваются (RFC 4180).
+     */
+    private void writeCsvField(String value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,241 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс интервалов активных (WAITING и APPROVED) бронирований по вещам.
+ * Для каждой вещи интервалы хранятся в TreeMap по началу и не пересекаются друг с другом,
+ * поэтому проверка пересечения — это один lowerEntry, т.е. O(log n).
+ * Проверка и вставка выполняются атомарно под монитором вещи.
+ * Прогрев строит новую карту из БД отдельно и подменяет ею текущую; пока он идёт,
+ * операции с индексом ждут, чтобы резервирование не прошло мимо ещё не загруженных интервалов.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private final BookingRepository bookingRepository;
+
+    private final ReadWriteLock warmUpLock = new ReentrantReadWriteLock();
+    private volatile Map<Long, ItemIntervals> intervals = new ConcurrentHashMap<>();
+
+    /**
+     * Загружает активные бронирования в новую карту и подменяет ею текущую. Интервалы, занятые
+     * до прогрева и не попавшие в выборку (резервирование ещё не сохранено или транзакция
+     * не закоммичена), переносятся в новую карту, а не теряются.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warmUpLock.writeLock().lock();
+        try {
+            Map<Long, ItemIntervals> loaded = new ConcurrentHashMap<>();
+            Set<Long> loadedIds = new HashSet<>();
+            bookingRepository.findIntervalsByStatusInAndEndAfter(
+                            List.of(BookingStatus.WAITING, BookingStatus.APPROVED), LocalDateTime.now())
+                    .forEach(view -> {
+                        loaded.computeIfAbsent(view.getItemId(), id -> new ItemIntervals())
+                                .put(new Interval(view.getId(), view.getStart(), view.getEnd()));
+                        loadedIds.add(view.getId());
+                    });
+            intervals.forEach((itemId, live) -> live.byStart.values().stream()
+                    .filter(interval -> interval.getBookingId() == null || !loadedIds.contains(interval.getBookingId()))
+                    .forEach(interval -> loaded.computeIfAbsent(itemId, id -> new ItemIntervals()).put(interval)));
+            intervals = loaded;
+            log.info("Индекс интервалов бронирований построен для {} вещей", loaded.size());
+        } finally {
+            warmUpLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Резервирует полуинтервал [start, end) для вещи или бросает ConflictException,
+     * если он пересекается с уже занятым. Id бронирования выставляется позже через
+     * {@link Interval#setBookingId(Long)}, когда запись сохранена в БД.
+     */
+    public Interval reserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Interval interval = new Interval(null, start, end);
+        warmUpLock.readLock().lock();
+        try {
+            ItemIntervals item = forItem(itemId);
+            synchronized (item) {
+                item.pruneEndedBefore(LocalDateTime.now());
+                if (item.overlaps(start, end)) {
+                    throw new ConflictException("Вещь уже забронирована на этот период");
+                }
+                item.put(interval);
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+        return interval;
+    }
+
+    /**
+     * Резервирование, когда пересечения с сохранёнными бронированиями уже проверены по таблице
+     * bookings под общей блокировкой вещи. Сохранённые интервалы индекса, пересекающиеся с новым,
+     * устарели (бронирование отклонили или отменили на другом экземпляре) и удаляются.
+     * Пересечение с ещё не сохранённым интервалом, например из того же пакета, — по-прежнему конфликт.
+     */
+    public Interval reserveVerified(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Interval interval = new Interval(null, start, end);
+        warmUpLock.readLock().lock();
+        try {
+            ItemIntervals item = forItem(itemId);
+            synchronized (item) {
+                item.pruneEndedBefore(LocalDateTime.now());
+                List<Interval> overlapping = item.overlapping(start, end);
+                if (overlapping.stream().anyMatch(existing -> existing.getBookingId() == null)) {
+                    throw new ConflictException("Вещь уже забронирована на этот период");
+                }
+                overlapping.forEach(item::remove);
+                item.put(interval);
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+        return interval;
+    }
+
+    public void release(Long itemId, Interval interval) {
+        warmUpLock.readLock().lock();
+        try {
+            ItemIntervals item = intervals.get(itemId);
+            if (item == null) {
+                return;
+            }
+            synchronized (item) {
+                item.remove(interval);
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    public void release(Long itemId, Long bookingId) {
+        warmUpLock.readLock().lock();
+        try {
+            ItemIntervals item = intervals.get(itemId);
+            if (item == null) {
+                return;
+            }
+            synchronized (item) {
+                item.removeByBookingId(bookingId);
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Свободные полуинтервалы вещи внутри [from, to). Занятые интервалы в индексе не пересекаются,
+     * поэтому достаточно одного прохода по подотображению TreeMap: O(log n + k).
+     */
+    public List<Interval> freeIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        warmUpLock.readLock().lock();
+        try {
+            ItemIntervals item = intervals.get(itemId);
+            if (item == null) {
+                return List.of(new Interval(null, from, to));
+            }
+            synchronized (item) {
+                return item.gaps(from, to);
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    private ItemIntervals forItem(Long itemId) {
+        return intervals.computeIfAbsent(itemId, id -> new ItemIntervals());
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Interval {
+        private volatile Long bookingId;
+        private LocalDateTime start;
+        private LocalDateTime end;
+    }
+
+    private static class ItemIntervals {
+        private final NavigableMap<LocalDateTime, Interval> byStart = new TreeMap<>();
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, Interval> candidate = byStart.lowerEntry(end);
+            return candidate != null && candidate.getValue().getEnd().isAfter(start);
+        }
+
+        List<Interval> overlapping(LocalDateTime start, LocalDateTime end) {
+            List<Interval> found = new ArrayList<>();
+            for (Interval interval : byStart.headMap(end, false).descendingMap().values()) {
+                if (!interval.getEnd().isAfter(start)) {
+                    break;
+                }
+                found.add(interval);
+            }
+            return found;
+        }
+
+        void put(Interval interval) {
+            byStart.put(interval.getStart(), interval);
+        }
+
+        void remove(Interval interval) {
+            byStart.remove(interval.getStart(), interval);
+        }
+
+        void removeByBookingId(Long bookingId) {
+            byStart.values().removeIf(interval -> bookingId.equals(interval.getBookingId()));
+        }
+
+        List<Interval> gaps(LocalDateTime from, LocalDateTime to) {
+            List<Interval> free = new ArrayList<>();
+            LocalDateTime cursor = from;
+            Map.Entry<LocalDateTime, Interval> before = byStart.lowerEntry(from);
+            if (before != null && before.getValue().getEnd().isAfter(cursor)) {
+                cursor = before.getValue().getEnd();
+            }
+            for (Interval busy : byStart.subMap(from, true, to, false).values()) {
+                if (busy.getStart().isAfter(cursor)) {
+                    free.add(new Interval(null, cursor, busy.getStart()));
+                }
+                if (busy.getEnd().isAfter(cursor)) {
+                    cursor = busy.getEnd();
+                }
+            }
+            if (cursor.isBefore(to)) {
+                free.add(new Interval(null, cursor, to));
+            }
+            return free;
+        }
+
+        void pruneEndedBefore(LocalDateTime now) {
+            while (!byStart.isEmpty() && byStart.firstEntry().getValue().getEnd().isBefore(now)) {
+                byStart.pollFirstEntry();
+            }
+        }
+    }
+}
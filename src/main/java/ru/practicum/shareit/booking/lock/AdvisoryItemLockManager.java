@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Транзакционные advisory-блокировки PostgreSQL: работают между несколькими экземплярами
+ * приложения и снимаются базой автоматически при коммите или откате. Под блокировкой
+ * пересечения проверяются по таблице bookings, а не только по индексу своего экземпляра.
+ * Календарь свободных окон по-прежнему строится из локального индекса и на других
+ * экземплярах может отставать.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.lock.mode", havingValue = "advisory")
+public class AdvisoryItemLockManager implements ItemLockManager {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void lock(Long itemId) {
+        jdbcTemplate.query("select pg_advisory_xact_lock(?)", rs -> null, itemId);
+    }
+
+    /**
+     * Ключ advisory-блокировки — сам id вещи, поэтому общий порядок захвата — порядок id.
+     */
+    @Override
+    public void lockAll(Collection<Long> itemIds) {
+        itemIds.stream().distinct().sorted().forEach(this::lock);
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+}
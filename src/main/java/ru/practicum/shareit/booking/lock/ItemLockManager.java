@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.lock;
+
+import java.util.Collection;
+
+public interface ItemLockManager {
+    /**
+     * Захватывает блокировку записи бронирований вещи до конца текущей транзакции.
+     * Записи по разным вещам не блокируют друг друга, записи по одной вещи выполняются по очереди.
+     */
+    void lock(Long itemId);
+
+    /**
+     * Захватывает блокировки нескольких вещей до конца текущей транзакции в порядке,
+     * общем для всех транзакций, поэтому пакеты с пересекающимися вещами не взаимоблокируются.
+     */
+    void lockAll(Collection<Long> itemIds);
+
+    /**
+     * Действует ли блокировка между экземплярами приложения. Тогда индекс интервалов
+     * этого экземпляра не видит чужих бронирований, и пересечения проверяются по таблице bookings.
+     */
+    default boolean isDistributed() {
+        return false;
+    }
+}
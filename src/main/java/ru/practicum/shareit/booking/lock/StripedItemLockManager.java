@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Блокировки внутри JVM: фиксированный массив ReentrantLock, вещь попадает в полосу по хешу id.
+ * Подходит для одного экземпляра приложения.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.lock.mode", havingValue = "jvm", matchIfMissing = true)
+public class StripedItemLockManager implements ItemLockManager {
+    private final ReentrantLock[] stripes;
+
+    public StripedItemLockManager(@Value("${shareit.booking.lock.stripes:256}") int stripes) {
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void lock(Long itemId) {
+        lockStripes(new int[]{stripe(itemId)});
+    }
+
+    /**
+     * Порядок id не совпадает с порядком полос, поэтому блокируются различные полосы
+     * по возрастанию номера: иначе пакеты, чьи вещи попали в полосы (a, b) и (b, a), ждали бы друг друга.
+     */
+    @Override
+    public void lockAll(Collection<Long> itemIds) {
+        lockStripes(itemIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray());
+    }
+
+    private void lockStripes(int[] indexes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещи возможна только внутри транзакции");
+        }
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = indexes.length - 1; i >= 0; i--) {
+                    stripes[indexes[i]].unlock();
+                }
+            }
+        });
+    }
+
+    private int stripe(Long itemId) {
+        long hash = itemId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (stripes.length - 1);
+    }
+}
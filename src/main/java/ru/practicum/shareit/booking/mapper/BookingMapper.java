@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.mapper;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -21,6 +22,17 @@ public class BookingMapper {
         );
     }
 
+    public BookingResponseDto toBookingResponseDto(BookingView view) {
+        return new BookingResponseDto(
+                view.getId(),
+                view.getStart(),
+                view.getEnd(),
+                view.getStatus().name(),
+                new BookingResponseDto.BookerDto(view.getBookerId()),
+                new BookingResponseDto.ItemDto(view.getItemId(), view.getItemName())
+        );
+    }
+
     public Booking toBooking(BookingDto dto, User booker, Item item) {
         return new Booking(
                 dto.getId(),
@@ -28,6 +40,7 @@ public class BookingMapper {
                 booker,
                 dto.getStart(),
                 dto.getEnd(),
+                null,
                 null
         );
     }
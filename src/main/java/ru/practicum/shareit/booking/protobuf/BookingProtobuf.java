@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.protobuf;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Кодирование {@link BookingResponseDto} в protobuf по схеме resources/proto/booking.proto.
+ * Пишется напрямую через {@link CodedOutputStream}, без сгенерированных классов и промежуточных
+ * объектов; поля со значением по умолчанию, как и в proto3, не передаются.
+ */
+@UtilityClass
+public class BookingProtobuf {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int LIST_BOOKINGS = 1;
+
+    private static final int BOOKING_ID = 1;
+    private static final int BOOKING_START_SECONDS = 2;
+    private static final int BOOKING_END_SECONDS = 3;
+    private static final int BOOKING_STATUS = 4;
+    private static final int BOOKING_BOOKER = 5;
+    private static final int BOOKING_ITEM = 6;
+    private static final int BOOKING_START_NANOS = 7;
+    private static final int BOOKING_END_NANOS = 8;
+
+    private static final int BOOKER_ID = 1;
+
+    private static final int ITEM_ID = 1;
+    private static final int ITEM_NAME = 2;
+
+    public void writeList(List<BookingResponseDto> bookings, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        for (BookingResponseDto booking : bookings) {
+            writeNested(output, LIST_BOOKINGS, bookingSize(booking));
+            writeBookingFields(output, booking);
+        }
+        output.flush();
+    }
+
+    public void writeBooking(BookingResponseDto booking, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        writeBookingFields(output, booking);
+        output.flush();
+    }
+
+    private void writeBookingFields(CodedOutputStream output, BookingResponseDto booking) throws IOException {
+        writeInt64(output, BOOKING_ID, booking.getId());
+        if (booking.getStart() != null) {
+            writeInt64(output, BOOKING_START_SECONDS, seconds(booking.getStart()));
+        }
+        if (booking.getEnd() != null) {
+            writeInt64(output, BOOKING_END_SECONDS, seconds(booking.getEnd()));
+        }
+        int status = status(booking.getStatus());
+        if (status != 0) {
+            output.writeEnum(BOOKING_STATUS, status);
+        }
+        if (booking.getBooker() != null) {
+            writeNested(output, BOOKING_BOOKER, bookerSize(booking.getBooker()));
+            writeInt64(output, BOOKER_ID, booking.getBooker().getId());
+        }
+        if (booking.getItem() != null) {
+            writeNested(output, BOOKING_ITEM, itemSize(booking.getItem()));
+            writeInt64(output, ITEM_ID, booking.getItem().getId());
+            if (booking.getItem().getName() != null && !booking.getItem().getName().isEmpty()) {
+                output.writeString(ITEM_NAME, booking.getItem().getName());
+            }
+        }
+        if (booking.getStart() != null && booking.getStart().getNano() != 0) {
+            output.writeInt32(BOOKING_START_NANOS, booking.getStart().getNano());
+        }
+        if (booking.getEnd() != null && booking.getEnd().getNano() != 0) {
+            output.writeInt32(BOOKING_END_NANOS, booking.getEnd().getNano());
+        }
+    }
+
+    private int bookingSize(BookingResponseDto booking) {
+        int size = int64Size(BOOKING_ID, booking.getId());
+        if (booking.getStart() != null) {
+            size += int64Size(BOOKING_START_SECONDS, seconds(booking.getStart()));
+            if (booking.getStart().getNano() != 0) {
+                size += CodedOutputStream.computeInt32Size(BOOKING_START_NANOS, booking.getStart().getNano());
+            }
+        }
+        if (booking.getEnd() != null) {
+            size += int64Size(BOOKING_END_SECONDS, seconds(booking.getEnd()));
+            if (booking.getEnd().getNano() != 0) {
+                size += CodedOutputStream.computeInt32Size(BOOKING_END_NANOS, booking.getEnd().getNano());
+            }
+        }
+        int status = status(booking.getStatus());
+        if (status != 0) {
+            size += CodedOutputStream.computeEnumSize(BOOKING_STATUS, status);
+        }
+        if (booking.getBooker() != null) {
+            size += nestedSize(BOOKING_BOOKER, bookerSize(booking.getBooker()));
+        }
+        if (booking.getItem() != null) {
+            size += nestedSize(BOOKING_ITEM, itemSize(booking.getItem()));
+        }
+        return size;
+    }
+
+    private int bookerSize(BookingResponseDto.BookerDto booker) {
+        return int64Size(BOOKER_ID, booker.getId());
+    }
+
+    private int itemSize(BookingResponseDto.ItemDto item) {
+        int size = int64Size(ITEM_ID, item.getId());
+        if (item.getName() != null && !item.getName().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(ITEM_NAME, item.getName());
+        }
+        return size;
+    }
+
+    private void writeNested(CodedOutputStream output, int field, int size) throws IOException {
+        output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(size);
+    }
+
+    private int nestedSize(int field, int size) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private void writeInt64(CodedOutputStream output, int field, Long value) throws IOException {
+        if (value != null && value != 0) {
+            output.writeInt64(field, value);
+        }
+    }
+
+    private int int64Size(int field, Long value) {
+        return value != null && value != 0 ? CodedOutputStream.computeInt64Size(field, value) : 0;
+    }
+
+    private long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Номер в enum BookingStatus схемы: 0 зарезервирован под «не указан», дальше порядок как в Java.
+     */
+    private int status(String status) {
+        return status == null ? 0 : BookingStatus.valueOf(status).ordinal() + 1;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.protobuf;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Ответы с бронированиями для Accept: application/x-protobuf. Пишет только
+ * {@link BookingResponseDto} и List&lt;BookingResponseDto&gt;, для остальных ответов
+ * конвертер не выбирается и такой Accept получает 406.
+ */
+public class BookingProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType APPLICATION_X_PROTOBUF = new MediaType("application", "x-protobuf");
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "protobuf");
+
+    public BookingProtobufHttpMessageConverter() {
+        super(APPLICATION_X_PROTOBUF, APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return BookingResponseDto.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && (supports(clazz) || isBookingList(type));
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof BookingResponseDto booking) {
+            BookingProtobuf.writeBooking(booking, outputMessage.getBody());
+        } else {
+            BookingProtobuf.writeList((List<BookingResponseDto>) body, outputMessage.getBody());
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Чтение protobuf не поддерживается", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Чтение protobuf не поддерживается", inputMessage);
+    }
+
+    private boolean isBookingList(Type type) {
+        if (type == null) {
+            return false;
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        return List.class.isAssignableFrom(resolved.toClass())
+                && resolved.getGeneric(0).toClass() == BookingResponseDto.class;
+    }
+}
@@ -1,46 +1,88 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.dto.BookingOwnershipView;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBooker_Id(Long bookerId, Sort sort);
-
-    List<Booking> findByBooker_IdAndEndBefore(
-            Long bookerId, LocalDateTime end, Sort sort);
-
-    List<Booking> findByBooker_IdAndStartLessThanEqualAndEndGreaterThanEqual(
-            Long bookerId, LocalDateTime now1, LocalDateTime now2, Sort sort);
-
-    List<Booking> findByBooker_IdAndStartAfter(
-            Long bookerId, LocalDateTime start, Sort sort);
-
-    List<Booking> findByBooker_IdAndStatus(
-            Long bookerId, BookingStatus status, Sort sort);
-
-    List<Booking> findByItem_Owner_Id(Long ownerId, Sort sort);
-
-    List<Booking> findByItem_Owner_IdAndStatus(
-            Long ownerId, BookingStatus status, Sort sort);
-
-    List<Booking> findByItem_Owner_IdAndStartLessThanEqualAndEndGreaterThanEqual(
-            Long ownerId, LocalDateTime now1, LocalDateTime now2, Sort sort);
-
-    List<Booking> findByItem_Owner_IdAndEndBefore(
-            Long ownerId, LocalDateTime end, Sort sort);
-
-    List<Booking> findByItem_Owner_IdAndStartAfter(
-            Long ownerId, LocalDateTime start, Sort sort);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.status = ?2 order by b.start desc")
-    List<Booking> findOwnerBookings(Long ownerId, BookingStatus status);
+    String VIEW = "select new ru.practicum.shareit.booking.dto.BookingView(" +
+            "b.id, b.start, b.end, b.status, b.booker.id, i.id, i.name) from Booking b join b.item i ";
+    String BY_BOOKER = VIEW + "where b.booker.id = :userId ";
+    String BY_OWNER = VIEW + "where i.owner.id = :userId ";
+    String SEEK = "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            "order by b.start desc, b.id desc";
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @Query(BY_BOOKER + SEEK)
+    List<BookingView> findBookerBookings(
+            Long userId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.start <= :now and b.end >= :now " + SEEK)
+    List<BookingView> findBookerCurrentBookings(
+            Long userId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.end < :now " + SEEK)
+    List<BookingView> findBookerPastBookings(
+            Long userId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.start > :now " + SEEK)
+    List<BookingView> findBookerFutureBookings(
+            Long userId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.status = :status " + SEEK)
+    List<BookingView> findBookerBookingsByStatus(
+            Long userId, BookingStatus status, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + SEEK)
+    List<BookingView> findOwnerBookings(
+            Long userId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    /**
+     * Все бронирования владельца для выгрузки. Результат читается курсором порциями по fetchSize
+     * и должен потребляться внутри транзакции; строки — проекции, в контекст персистентности не попадают.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(BY_OWNER + "order by b.start desc, b.id desc")
+    Stream<BookingView> streamOwnerBookings(Long userId);
+
+    @Query(BY_OWNER + "and b.start <= :now and b.end >= :now " + SEEK)
+    List<BookingView> findOwnerCurrentBookings(
+            Long userId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + "and b.end < :now " + SEEK)
+    List<BookingView> findOwnerPastBookings(
+            Long userId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + "and b.start > :now " + SEEK)
+    List<BookingView> findOwnerFutureBookings(
+            Long userId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @Query(BY_OWNER + "and b.status = :status " + SEEK)
+    List<BookingView> findOwnerBookingsByStatus(
+            Long userId, BookingStatus status, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
 
     Optional<Booking> findFirstByItem_IdAndStatusAndStartLessThanEqualOrderByStartDesc(
             Long itemId, BookingStatus status, LocalDateTime now);
@@ -48,6 +90,60 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findFirstByItem_IdAndStatusAndStartAfterOrderByStartAsc(
             Long itemId, BookingStatus status, LocalDateTime now);
 
+    /**
+     * Последнее (start <= now) и следующее (start > now) бронирование с заданным статусом
+     * для каждой вещи из набора — одним запросом вместо двух на каждую вещь.
+     */
+    @Query(value = "select t.item_id as itemId, t.id as id, t.booker_id as bookerId, " +
+            "       t.start_date as start, t.is_last as last " +
+            "from (select b.id, b.item_id, b.booker_id, b.start_date, " +
+            "             case when b.start_date <= :now then true else false end as is_last, " +
+            "             row_number() over (partition by b.item_id, " +
+            "                                     case when b.start_date <= :now then 1 else 0 end " +
+            "                                order by case when b.start_date <= :now then b.start_date end desc, " +
+            "                                         b.start_date asc) as rn " +
+            "      from bookings b " +
+            "      where b.item_id in (:itemIds) and b.status = :status) t " +
+            "where t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextByItemIds(Collection<Long> itemIds, String status, LocalDateTime now);
+
+    @Query("select b.id as id, i.id as itemId, i.owner.id as ownerId, b.booker.id as bookerId, " +
+            "b.status as status from Booking b join b.item i where b.id in ?1")
+    List<BookingOwnershipView> findOwnershipByIdIn(Collection<Long> ids);
+
+    /**
+     * Меняет статус, только если бронирование всё ещё ожидает решения и не менялось
+     * с прочитанной версии. Возвращает число изменённых строк: 1 — решение принято этим вызовом.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :id and b.version = :version " +
+            "and b.status = ru.practicum.shareit.booking.enums.BookingStatus.WAITING")
+    int updateStatusIfWaiting(Long id, Long version, BookingStatus status);
+
+    /**
+     * Одним UPDATE подтверждает бронирования из approvedIds и отклоняет остальные из ids.
+     * Меняются только бронирования в статусе WAITING по вещам владельца.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Booking b set b.version = b.version + 1, b.status = case when b.id in :approvedIds " +
+            "then ru.practicum.shareit.booking.enums.BookingStatus.APPROVED " +
+            "else ru.practicum.shareit.booking.enums.BookingStatus.REJECTED end " +
+            "where b.id in :ids and b.status = ru.practicum.shareit.booking.enums.BookingStatus.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int decide(Long ownerId, Collection<Long> ids, Collection<Long> approvedIds);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end from Booking b " +
+            "where b.status in ?1 and b.end > ?2")
+    List<BookingIntervalView> findIntervalsByStatusInAndEndAfter(
+            Collection<BookingStatus> statuses, LocalDateTime now);
+
+    /**
+     * Есть ли у вещи активное бронирование, пересекающееся с [start, end): start_b < end и end_b > start.
+     */
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime end, LocalDateTime start);
+
     boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(
             Long bookerId, Long itemId, BookingStatus status, LocalDateTime now);
 }
@@ -1,18 +1,36 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingExportFormat;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface BookingService {
     BookingResponseDto create(Long userId, BookingDto bookingDto);
 
+    List<BookingBatchResultDto> createBatch(Long userId, List<BookingDto> bookingDtos);
+
     BookingResponseDto approve(Long userId, Long bookingId, boolean approved);
 
+    List<BookingDecisionResultDto> decide(Long userId, List<BookingDecisionDto> decisions);
+
     BookingResponseDto getById(Long userId, Long bookingId);
 
-    List<BookingResponseDto> getUserBookings(Long userId, String state);
+    BookingPage getUserBookings(Long userId, String state, int from, int size, String cursor);
+
+    BookingPage getOwnerBookings(Long userId, String state, int from, int size, String cursor);
+
+    BookingExportFormat prepareOwnerExport(Long userId, String format);
+
+    void exportOwnerBookings(Long userId, BookingExportFormat format, OutputStream out);
+
+    String getUserBookingsETag(Long userId, String state, int from, int size, String cursor);
 
-    List<BookingResponseDto> getOwnerBookings(Long userId, String state);
+    String getOwnerBookingsETag(Long userId, String state, int from, int size, String cursor);
 }
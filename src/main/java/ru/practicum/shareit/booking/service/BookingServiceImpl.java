@@ -1,25 +1,53 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingOwnershipView;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.enums.BookingExportFormat;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.event.BookingCreatedEvent;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.booking.export.BookingExportWriter;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lock.ItemLockManager;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ChangeWatermarks;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPaging;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,7 +56,17 @@ public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final ItemLockManager itemLockManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeWatermarks changeWatermarks;
+    private final BookingExportWriter bookingExportWriter;
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_APPROVE_ATTEMPTS = 3;
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
 
     @Override
     @Transactional
@@ -39,51 +77,188 @@ public class BookingServiceImpl implements BookingService {
         Item item = itemRepository.findById(bookingDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
-        if (!item.getAvailable()) {
-            throw new ValidationException("Вещь недоступна для бронирования");
-        }
+        validate(userId, bookingDto, item);
+        itemLockManager.lock(item.getId());
+        BookingIntervalIndex.Interval interval = reserve(item, bookingDto);
 
-        if (item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Владелец не может бронировать свою вещь");
-        }
+        Booking booking = BookingMapper.toBooking(bookingDto, booker, item);
+        booking.setStatus(BookingStatus.WAITING);
 
-        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
-            throw new ValidationException("Дата начала и окончания бронирования обязательны");
+        Booking savedBooking = bookingRepository.save(booking);
+        interval.setBookingId(savedBooking.getId());
+        publishCreated(savedBooking);
+        return BookingMapper.toBookingResponseDto(savedBooking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBatch(Long userId, List<BookingDto> bookingDtos) {
+        if (bookingDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("В одном пакете не больше " + MAX_BATCH_SIZE + " бронирований");
         }
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
-        if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
-            throw new ValidationException("Дата окончания должна быть позже даты начала");
+        Map<Long, Item> items = itemRepository.findAllById(bookingDtos.stream()
+                        .map(BookingDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        itemLockManager.lockAll(items.keySet());
+
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingDtos.size());
+        List<Booking> bookings = new ArrayList<>(bookingDtos.size());
+        List<BookingIntervalIndex.Interval> intervals = new ArrayList<>(bookingDtos.size());
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto dto = bookingDtos.get(i);
+            try {
+                if (dto == null || dto.getItemId() == null) {
+                    throw new ValidationException("Не указана вещь");
+                }
+                Item item = items.get(dto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Вещь не найдена");
+                }
+                validate(userId, dto, item);
+                intervals.add(reserve(item, dto));
+                bookings.add(new Booking(null, item, booker, dto.getStart(), dto.getEnd(), BookingStatus.WAITING,
+                        null));
+                results.add(new BookingBatchResultDto(i, null, null));
+            } catch (NotFoundException | ValidationException | ConflictException e) {
+                results.add(new BookingBatchResultDto(i, null, e.getMessage()));
+            }
         }
 
-        if (bookingDto.getStart().isBefore(LocalDateTime.now())) {
-            throw new ValidationException("Дата начала должна быть в будущем");
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        int next = 0;
+        for (BookingBatchResultDto result : results) {
+            if (result.getError() == null) {
+                intervals.get(next).setBookingId(saved.get(next).getId());
+                publishCreated(saved.get(next));
+                result.setBooking(BookingMapper.toBookingResponseDto(saved.get(next)));
+                next++;
+            }
         }
+        return results;
+    }
 
-        Booking booking = BookingMapper.toBooking(bookingDto, booker, item);
-        booking.setStatus(BookingStatus.WAITING);
+    /**
+     * Решение принимается условным UPDATE по статусу WAITING и прочитанной версии, без блокировок
+     * вещи и SELECT ... FOR UPDATE. Из параллельных решений по одному бронированию изменит строку
+     * ровно одно, остальные увидят новый статус при перечитывании. Если строка изменилась,
+     * а статус остался WAITING, решение повторяется с новой версией.
+     */
+    @Override
+    @Transactional
+    public BookingResponseDto approve(Long userId, Long bookingId, boolean approved) {
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
 
-        Booking savedBooking = bookingRepository.save(booking);
-        return BookingMapper.toBookingResponseDto(savedBooking);
+        for (int attempt = 1; ; attempt++) {
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+
+            if (!booking.getItem().getOwner().getId().equals(userId)) {
+                throw new ValidationException("Подтверждать бронирование может только владелец вещи");
+            }
+
+            if (booking.getStatus() != BookingStatus.WAITING) {
+                throw new ValidationException("Бронирование уже обработано");
+            }
+
+            if (bookingRepository.updateStatusIfWaiting(bookingId, booking.getVersion(), newStatus) == 1) {
+                // после UPDATE контекст очищен, booking отсоединён и меняется только для ответа
+                booking.setStatus(newStatus);
+                booking.setVersion(booking.getVersion() + 1);
+                Long itemId = booking.getItem().getId();
+                eventPublisher.publishEvent(new BookingStatusChangedEvent(bookingId, itemId,
+                        booking.getBooker().getId(), userId, newStatus));
+                if (newStatus == BookingStatus.REJECTED) {
+                    afterCompletion(status -> {
+                        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                            intervalIndex.release(itemId, bookingId);
+                        }
+                    });
+                }
+                return BookingMapper.toBookingResponseDto(booking);
+            }
+            if (attempt == MAX_APPROVE_ATTEMPTS) {
+                throw new ConflictException("Бронирование изменилось во время обработки, повторите запрос");
+            }
+        }
     }
 
     @Override
     @Transactional
-    public BookingResponseDto approve(Long userId, Long bookingId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+    public List<BookingDecisionResultDto> decide(Long userId, List<BookingDecisionDto> decisions) {
+        userCache.ensureExists(userId);
 
-        if (!booking.getItem().getOwner().getId().equals(userId)) {
-            throw new ValidationException("Подтверждать бронирование может только владелец вещи");
+        Map<Long, Boolean> approvedById = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision == null || decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("Для каждого решения обязательны bookingId и approved");
+            }
+            if (approvedById.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new ValidationException("Бронирование " + decision.getBookingId() + " указано дважды");
+            }
         }
+        if (approvedById.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, BookingOwnershipView> bookings = bookingRepository.findOwnershipByIdIn(approvedById.keySet()).stream()
+                .collect(Collectors.toMap(BookingOwnershipView::getId, Function.identity()));
+        itemLockManager.lockAll(bookings.values().stream()
+                .filter(view -> view.getOwnerId().equals(userId))
+                .map(BookingOwnershipView::getItemId)
+                .collect(Collectors.toSet()));
 
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new ValidationException("Бронирование уже обработано");
+        Map<Long, BookingDecisionResultDto> results = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>();
+        List<Long> approvedIds = new ArrayList<>();
+        approvedById.forEach((bookingId, approved) -> {
+            BookingOwnershipView view = bookings.get(bookingId);
+            if (view == null) {
+                results.put(bookingId, new BookingDecisionResultDto(bookingId, null, "Бронирование не найдено"));
+            } else if (!view.getOwnerId().equals(userId)) {
+                results.put(bookingId, new BookingDecisionResultDto(bookingId, view.getStatus().name(),
+                        "Подтверждать бронирование может только владелец вещи"));
+            } else if (view.getStatus() != BookingStatus.WAITING) {
+                results.put(bookingId, new BookingDecisionResultDto(bookingId, view.getStatus().name(),
+                        "Бронирование уже обработано"));
+            } else {
+                BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                results.put(bookingId, new BookingDecisionResultDto(bookingId, status.name(), null));
+                ids.add(bookingId);
+                if (approved) {
+                    approvedIds.add(bookingId);
+                }
+            }
+        });
+        if (ids.isEmpty()) {
+            return new ArrayList<>(results.values());
         }
 
-        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
-        booking.setStatus(newStatus);
-        Booking updatedBooking = bookingRepository.save(booking);
-        return BookingMapper.toBookingResponseDto(updatedBooking);
+        // пустой список в IN не везде допустим, а id бронирований положительны
+        int updated = bookingRepository.decide(userId, ids, approvedIds.isEmpty() ? List.of(0L) : approvedIds);
+        if (updated != ids.size()) {
+            throw new ConflictException("Статус бронирований изменился во время обработки, повторите запрос");
+        }
+
+        for (Long bookingId : ids) {
+            BookingOwnershipView view = bookings.get(bookingId);
+            Long itemId = view.getItemId();
+            BookingStatus status = BookingStatus.valueOf(results.get(bookingId).getStatus());
+            eventPublisher.publishEvent(new BookingStatusChangedEvent(bookingId, itemId,
+                    view.getBookerId(), userId, status));
+            if (status == BookingStatus.REJECTED) {
+                afterCompletion(txStatus -> {
+                    if (txStatus == TransactionSynchronization.STATUS_COMMITTED) {
+                        intervalIndex.release(itemId, bookingId);
+                    }
+                });
+            }
+        }
+        return new ArrayList<>(results.values());
     }
 
     @Override
@@ -100,78 +275,197 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getUserBookings(Long userId, String state) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public BookingPage getUserBookings(Long userId, String state, int from, int size, String cursor) {
+        userCache.ensureExists(userId);
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookings;
+        KeysetCursor position = KeysetPaging.position(cursor);
+        Pageable page = KeysetPaging.pageable(from, size, cursor);
+        LocalDateTime cursorStart = position.getTime();
+        Long cursorId = position.getId();
+        List<BookingView> bookings;
         LocalDateTime now = LocalDateTime.now();
 
         switch (state.toUpperCase()) {
             case "CURRENT":
                 bookings = bookingRepository
-                        .findByBooker_IdAndStartLessThanEqualAndEndGreaterThanEqual(
-                                userId, now, now, sort);
+                        .findBookerCurrentBookings(userId, now, cursorStart, cursorId, page);
                 break;
             case "PAST":
                 bookings = bookingRepository
-                        .findByBooker_IdAndEndBefore(userId, now, sort);
+                        .findBookerPastBookings(userId, now, cursorStart, cursorId, page);
                 break;
             case "FUTURE":
                 bookings = bookingRepository
-                        .findByBooker_IdAndStartAfter(userId, now, sort);
+                        .findBookerFutureBookings(userId, now, cursorStart, cursorId, page);
                 break;
             case "WAITING":
                 bookings = bookingRepository
-                        .findByBooker_IdAndStatus(userId, BookingStatus.WAITING, sort);
+                        .findBookerBookingsByStatus(userId, BookingStatus.WAITING, cursorStart, cursorId, page);
                 break;
             case "REJECTED":
                 bookings = bookingRepository
-                        .findByBooker_IdAndStatus(userId, BookingStatus.REJECTED, sort);
+                        .findBookerBookingsByStatus(userId, BookingStatus.REJECTED, cursorStart, cursorId, page);
                 break;
             default:
                 bookings = bookingRepository
-                        .findByBooker_Id(userId, sort);
+                        .findBookerBookings(userId, cursorStart, cursorId, page);
         }
-        return bookings.stream().map(BookingMapper::toBookingResponseDto).collect(Collectors.toList());
+        return toPage(bookings, size);
     }
 
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long userId, String state) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public BookingPage getOwnerBookings(Long userId, String state, int from, int size, String cursor) {
+        userCache.ensureExists(userId);
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookings;
+        KeysetCursor position = KeysetPaging.position(cursor);
+        Pageable page = KeysetPaging.pageable(from, size, cursor);
+        LocalDateTime cursorStart = position.getTime();
+        Long cursorId = position.getId();
+        List<BookingView> bookings;
         LocalDateTime now = LocalDateTime.now();
 
         switch (state.toUpperCase()) {
             case "CURRENT":
                 bookings = bookingRepository
-                        .findByItem_Owner_IdAndStartLessThanEqualAndEndGreaterThanEqual(
-                                userId, now, now, sort);
+                        .findOwnerCurrentBookings(userId, now, cursorStart, cursorId, page);
                 break;
             case "PAST":
                 bookings = bookingRepository
-                        .findByItem_Owner_IdAndEndBefore(userId, now, sort);
+                        .findOwnerPastBookings(userId, now, cursorStart, cursorId, page);
                 break;
             case "FUTURE":
                 bookings = bookingRepository
-                        .findByItem_Owner_IdAndStartAfter(userId, now, sort);
+                        .findOwnerFutureBookings(userId, now, cursorStart, cursorId, page);
                 break;
             case "WAITING":
                 bookings = bookingRepository
-                        .findByItem_Owner_IdAndStatus(userId, BookingStatus.WAITING, sort);
+                        .findOwnerBookingsByStatus(userId, BookingStatus.WAITING, cursorStart, cursorId, page);
                 break;
             case "REJECTED":
                 bookings = bookingRepository
-                        .findByItem_Owner_IdAndStatus(userId, BookingStatus.REJECTED, sort);
+                        .findOwnerBookingsByStatus(userId, BookingStatus.REJECTED, cursorStart, cursorId, page);
                 break;
             default:
                 bookings = bookingRepository
-                        .findByItem_Owner_Id(userId, sort);
+                        .findOwnerBookings(userId, cursorStart, cursorId, page);
         }
-        return bookings.stream().map(BookingMapper::toBookingResponseDto).collect(Collectors.toList());
+        return toPage(bookings, size);
+    }
+
+    /**
+     * Проверки выгрузки выполняются до ответа: после начала записи тела статус уже не поменять.
+     */
+    @Override
+    public BookingExportFormat prepareOwnerExport(Long userId, String format) {
+        BookingExportFormat exportFormat = BookingExportFormat.from(format);
+        userCache.ensureExists(userId);
+        return exportFormat;
+    }
+
+    /**
+     * Транзакция и соединение удерживаются, пока курсор не дочитан и строки не записаны в ответ.
+     */
+    @Override
+    public void exportOwnerBookings(Long userId, BookingExportFormat format, OutputStream out) {
+        try (Stream<BookingView> rows = bookingRepository.streamOwnerBookings(userId)) {
+            bookingExportWriter.write(rows, format, out);
+        }
+    }
+
+    @Override
+    public String getUserBookingsETag(Long userId, String state, int from, int size, String cursor) {
+        return bookingsETag("booker", userId, state, from, size, cursor);
+    }
+
+    @Override
+    public String getOwnerBookingsETag(Long userId, String state, int from, int size, String cursor) {
+        return bookingsETag("owner", userId, state, from, size, cursor);
+    }
+
+    /**
+     * ETag списка бронирований без выборки самих бронирований. Содержимое меняется при создании
+     * и решениях по бронированиям пользователя (водяной знак) и при переименовании вещей.
+     * Для CURRENT, PAST и FUTURE состав ещё зависит от времени: бронирование переходит между ними,
+     * когда начинается или заканчивается, поэтому в тег входит интервал времени и тег слабый.
+     */
+    private String bookingsETag(String list, Long userId, String state, int from, int size, String cursor) {
+        userCache.ensureExists(userId);
+
+        String normalized = state.toUpperCase();
+        List<Object> parts = new ArrayList<>(List.of(list, normalized, from, size, String.valueOf(cursor),
+                changeWatermarks.forUser(userId), changeWatermarks.items()));
+        if (normalized.equals("CURRENT") || normalized.equals("PAST") || normalized.equals("FUTURE")) {
+            parts.add(changeWatermarks.timeBucket());
+            return changeWatermarks.weakEtag(parts.toArray());
+        }
+        return changeWatermarks.etag(parts.toArray());
+    }
+
+    private void validate(Long userId, BookingDto bookingDto, Item item) {
+        if (!item.getAvailable()) {
+            throw new ValidationException("Вещь недоступна для бронирования");
+        }
+
+        if (item.getOwner().getId().equals(userId)) {
+            throw new NotFoundException("Владелец не может бронировать свою вещь");
+        }
+
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            throw new ValidationException("Дата начала и окончания бронирования обязательны");
+        }
+
+        if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
+            throw new ValidationException("Дата окончания должна быть позже даты начала");
+        }
+
+        if (bookingDto.getStart().isBefore(LocalDateTime.now())) {
+            throw new ValidationException("Дата начала должна быть в будущем");
+        }
+    }
+
+    /**
+     * Резервирует интервал в индексе; вызывается под блокировкой вещи.
+     * При блокировке между экземплярами индекс этого экземпляра неполон, поэтому пересечение
+     * сначала проверяется по таблице bookings. При откате транзакции резерв снимается.
+     */
+    private BookingIntervalIndex.Interval reserve(Item item, BookingDto bookingDto) {
+        BookingIntervalIndex.Interval interval;
+        if (itemLockManager.isDistributed()) {
+            if (bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(
+                    item.getId(), ACTIVE_STATUSES, bookingDto.getEnd(), bookingDto.getStart())) {
+                throw new ConflictException("Вещь уже забронирована на этот период");
+            }
+            interval = intervalIndex.reserveVerified(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+        } else {
+            interval = intervalIndex.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+        }
+        afterCompletion(status -> {
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                intervalIndex.release(item.getId(), interval);
+            }
+        });
+        return interval;
+    }
+
+    private void publishCreated(Booking booking) {
+        eventPublisher.publishEvent(new BookingCreatedEvent(booking.getId(), booking.getItem().getId(),
+                booking.getBooker().getId(), booking.getItem().getOwner().getId()));
+    }
+
+    private void afterCompletion(IntConsumer callback) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status);
+            }
+        });
+    }
+
+    private BookingPage toPage(List<BookingView> views, int size) {
+        List<BookingResponseDto> bookings = views.stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList());
+        return new BookingPage(bookings, KeysetPaging.nextCursor(
+                bookings, size, BookingResponseDto::getStart, BookingResponseDto::getId));
     }
-}
\ No newline at end of file
+}
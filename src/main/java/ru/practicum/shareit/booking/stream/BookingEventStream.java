@@ -0,0 +1,187 @@
+package ru.practicum.shareit.booking.stream;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingStreamEventDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.event.BookingCreatedEvent;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.user.service.UserCache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SSE-поток событий бронирований для автора и владельца вещи.
+ * События приходят после коммита транзакции. У подписчика есть только очередь ограниченной
+ * длины, поэтому простаивающее соединение не держит поток. Накопившиеся события отправляет
+ * отдельный виртуальный поток на каждую отправку: запись в медленный сокет блокирует только
+ * его, а не доставку другим подписчикам. Медленный клиент при переполнении очереди отключается
+ * и после переподключения перечитывает состояние через GET /bookings.
+ */
+@Slf4j
+@Component
+public class BookingEventStream {
+    private static final String EVENT_NAME = "booking";
+    private static final BookingStreamEventDto PING = new BookingStreamEventDto();
+
+    private final UserCache userCache;
+    private final Duration timeout;
+    private final int queueCapacity;
+    private final int maxPerUser;
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeat;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public BookingEventStream(UserCache userCache,
+                              @Value("${shareit.booking.stream.timeout:30m}") Duration timeout,
+                              @Value("${shareit.booking.stream.queue-capacity:32}") int queueCapacity,
+                              @Value("${shareit.booking.stream.max-per-user:4}") int maxPerUser,
+                              @Value("${shareit.booking.stream.heartbeat:25s}") Duration heartbeatInterval) {
+        this.userCache = userCache;
+        this.timeout = timeout;
+        this.queueCapacity = queueCapacity;
+        this.maxPerUser = maxPerUser;
+        this.sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                .name("booking-stream-", 0).factory());
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("booking-stream-heartbeat").daemon().factory());
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeat,
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        userCache.ensureExists(userId);
+
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(timeout.toMillis()));
+        subscribers.compute(userId, (id, current) -> {
+            Set<Subscriber> set = current != null ? current : ConcurrentHashMap.newKeySet();
+            if (set.size() >= maxPerUser) {
+                throw new ConflictException("Превышено число открытых подписок пользователя");
+            }
+            set.add(subscriber);
+            return set;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener
+    public void onBookingCreated(BookingCreatedEvent event) {
+        publish(new BookingStreamEventDto(event.getBookingId(), event.getItemId(),
+                event.getBookerId(), event.getOwnerId(), BookingStatus.WAITING));
+    }
+
+    @TransactionalEventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        publish(new BookingStreamEventDto(event.getBookingId(), event.getItemId(),
+                event.getBookerId(), event.getOwnerId(), event.getStatus()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void publish(BookingStreamEventDto event) {
+        deliver(event.getBookerId(), event);
+        if (!event.getOwnerId().equals(event.getBookerId())) {
+            deliver(event.getOwnerId(), event);
+        }
+    }
+
+    private void deliver(Long userId, BookingStreamEventDto message) {
+        Set<Subscriber> set = subscribers.get(userId);
+        if (set != null) {
+            set.forEach(subscriber -> subscriber.offer(message));
+        }
+    }
+
+    /**
+     * Комментарий раз в интервал не даёт прокси закрыть простаивающее соединение
+     * и позволяет заметить оборванные.
+     */
+    private void sendHeartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> {
+            if (subscriber.queue.isEmpty()) {
+                subscriber.offer(PING);
+            }
+        }));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<BookingStreamEventDto> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(BookingStreamEventDto message) {
+            if (!queue.offer(message)) {
+                log.warn("Подписчик {} не успевает читать поток бронирований и отключён", userId);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                BookingStreamEventDto message;
+                while ((message = queue.poll()) != null) {
+                    emitter.send(message == PING
+                            ? SseEmitter.event().comment("ping")
+                            : SseEmitter.event().name(EVENT_NAME).data(message, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+                queue.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.booking.protobuf.BookingProtobufHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Компактные форматы ответов рядом с JSON, выбираются по заголовку Accept:
+ * application/cbor — любой ответ в той же структуре, что и JSON;
+ * application/x-protobuf — ответы с бронированиями по схеме proto/booking.proto.
+ * Конвертеры добавляются в конец списка: без Accept или с Accept: *&#47;* по-прежнему отдаётся JSON.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    /**
+     * CBOR-маппер строится тем же билдером Spring Boot, что и JSON-маппер, поэтому даты
+     * и остальные настройки сериализации совпадают; стандартный CBOR-конвертер Spring их не учитывает.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new BookingProtobufHttpMessageConverter());
+    }
+}
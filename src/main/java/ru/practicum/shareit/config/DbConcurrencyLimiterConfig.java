@@ -0,0 +1,108 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * В режиме виртуальных потоков (spring.threads.virtual.enabled=true) число одновременных запросов
+ * ограничено не пулом Tomcat, а только памятью, поэтому перед пулом соединений ставится
+ * справедливый семафор: лишние виртуальные потоки паркуются на нём, не занимая несущие потоки
+ * и не создавая очередь внутри Hikari.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DbConcurrencyLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor dbConcurrencyLimiter(
+            @Value("${shareit.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${shareit.db.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LimitedDataSource)) {
+                    return new LimitedDataSource(dataSource, new Semaphore(permits, true), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class LimitedDataSource extends DelegatingDataSource {
+        private final Semaphore permits;
+        private final Duration acquireTimeout;
+
+        LimitedDataSource(DataSource target, Semaphore permits, Duration acquireTimeout) {
+            super(target);
+            this.permits = permits;
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releasingOnClose(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releasingOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException(
+                            "Превышено время ожидания соединения с БД: " + acquireTimeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Ожидание соединения с БД прервано", e);
+            }
+        }
+
+        private Connection releasingOnClose(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                    });
+        }
+    }
+}
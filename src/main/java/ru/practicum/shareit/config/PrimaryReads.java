@@ -0,0 +1,63 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Чтение для общих кэшей только из основной БД. Запись кэша видят все пользователи,
+ * поэтому её нельзя заполнять с отстающей реплики: после сброса по событию изменения
+ * туда снова попали бы старые данные, причём уже под новым ETag.
+ *
+ * <p>Если транзакция ещё не брала соединение, загрузчик выполняется в ней же и соединение
+ * берётся из основной БД. Если она уже читает из реплики — в отдельной readOnly-транзакции,
+ * закреплённой за основной БД (вложенное соединение берётся из другого пула, поэтому пул
+ * не может исчерпаться сам на себя). Если реплика не настроена или транзакция уже идёт
+ * в основную БД, загрузчик выполняется как есть.
+ */
+@Component
+public class PrimaryReads {
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    private final TransactionTemplate primaryTransaction;
+
+    public PrimaryReads(ObjectProvider<ReadWriteRoutingDataSource> routingDataSource,
+                        PlatformTransactionManager transactionManager) {
+        this.routingDataSource = routingDataSource;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryTransaction.setReadOnly(true);
+    }
+
+    public <T> T load(Supplier<T> loader) {
+        ReadWriteRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+        if (dataSource == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        ReadWriteRoutingDataSource.Target target = dataSource.transactionTarget();
+        if (target == ReadWriteRoutingDataSource.Target.PRIMARY) {
+            return loader.get();
+        }
+        Boolean previous = FORCED.get();
+        FORCED.set(Boolean.TRUE);
+        try {
+            return target == null ? loader.get() : primaryTransaction.execute(status -> loader.get());
+        } finally {
+            if (previous == null) {
+                FORCED.remove();
+            } else {
+                FORCED.set(previous);
+            }
+        }
+    }
+
+    static boolean isForced() {
+        return Boolean.TRUE.equals(FORCED.get());
+    }
+}
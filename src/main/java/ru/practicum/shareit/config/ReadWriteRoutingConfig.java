@@ -0,0 +1,116 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Разделение чтения и записи между основной БД и репликой. Включается, когда задан
+ * shareit.datasource.replica.url; без него приложение работает с одним spring.datasource.
+ * Пулы настраиваются как обычно: spring.datasource.hikari.* для основной БД
+ * и shareit.datasource.replica.hikari.* для реплики.
+ * Отставание по умолчанию — время с последней применённой на реплике транзакции, но если реплика
+ * применила всё полученное WAL, оно считается нулевым: иначе на простаивающей основной БД
+ * «отставание» росло бы само по себе и чтение без причины уходило бы на основную БД.
+ * Кэш второго уровня Hibernate здесь выключается, см. {@link SecondLevelCacheConfig}.
+ */
+@Configuration
+@ConditionalOnProperty("shareit.datasource.replica.url")
+public class ReadWriteRoutingConfig implements WebMvcConfigurer {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            ReadYourWritesTracker tracker,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.datasource.replica.url}") String replicaUrl,
+            @Value("${shareit.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${shareit.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${shareit.datasource.replica.max-lag:2s}") Duration maxLag,
+            @Value("${shareit.datasource.replica.lag-check-interval:1s}") Duration lagCheckInterval,
+            @Value("${shareit.datasource.replica.lag-query:"
+                    + "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+                    + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end}")
+            String lagQuery) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(meterRegistry);
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        binder.bind("shareit.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMetricRegistry(meterRegistry);
+
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(
+                primary, replica, tracker, maxLag, lagCheckInterval, lagQuery);
+        Gauge.builder("shareit.datasource.replica.lag", dataSource, ReadWriteRoutingDataSource::getLagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return dataSource;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheDisabler() {
+        return properties -> properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                RequestUser.clear();
+                String userId = request.getHeader(USER_ID_HEADER);
+                if (userId != null) {
+                    try {
+                        RequestUser.set(Long.valueOf(userId.trim()));
+                    } catch (NumberFormatException ignored) {
+                        // некорректный заголовок отклонит контроллер, маршрутизация обойдётся без пользователя
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                RequestUser.clear();
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                        Object handler, Exception ex) {
+                RequestUser.clear();
+            }
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Источник данных, который отправляет readOnly-транзакции в пул реплики, а остальные — в основной пул.
+ * Физическое соединение берётся лениво, при первом запросе: к этому моменту флаг readOnly
+ * транзакции уже выставлен, а при открытии транзакции он ещё не известен.
+ *
+ * <p>Чтение всё равно идёт в основную БД, если пользователь запроса недавно писал
+ * (см. {@link ReadYourWritesTracker}), если загружаются данные для общего кэша (см. {@link PrimaryReads})
+ * или если отставание реплики выше допустимого либо неизвестно.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    public enum Target { PRIMARY, REPLICA }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final ReadYourWritesTracker tracker;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final ScheduledExecutorService lagMonitor;
+    private final Object transactionTargetKey = new Object();
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+                                      ReadYourWritesTracker tracker, Duration maxLag,
+                                      Duration lagCheckInterval, String lagQuery) {
+        this.primary = primary;
+        this.replica = replica;
+        this.tracker = tracker;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+
+        Router router = new Router();
+        router.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+
+        checkLag();
+        this.lagMonitor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replica-lag-monitor").daemon().factory());
+        this.lagMonitor.scheduleWithFixedDelay(this::checkLag,
+                lagCheckInterval.toMillis(), lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Последнее измеренное отставание реплики в секундах или NaN, если измерить не удалось.
+     */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public boolean isReplicaUsable() {
+        double lag = lagSeconds;
+        return !Double.isNaN(lag) && lag * 1000 <= maxLag.toMillis();
+    }
+
+    Target currentTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Long userId = RequestUser.get();
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        tracker.markWritten(userId);
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+        if (PrimaryReads.isForced() || tracker.isSticky(RequestUser.get()) || !isReplicaUsable()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    /**
+     * Куда уже выдано соединение текущей транзакции, или null, если она ещё не обращалась к БД.
+     */
+    Target transactionTarget() {
+        return (Target) TransactionSynchronizationManager.getResource(transactionTargetKey);
+    }
+
+    @Override
+    public void close() {
+        lagMonitor.shutdownNow();
+        replica.close();
+        primary.close();
+    }
+
+    private void checkLag() {
+        try {
+            Double lag = new JdbcTemplate(replica).queryForObject(lagQuery, Double.class);
+            lagSeconds = lag != null ? lag : Double.NaN;
+        } catch (RuntimeException e) {
+            if (!Double.isNaN(lagSeconds)) {
+                log.warn("Не удалось измерить отставание реплики, чтение переключено на основную БД", e);
+            }
+            lagSeconds = Double.NaN;
+        }
+    }
+
+    /**
+     * Выбор запоминается в транзакции: по нему {@link PrimaryReads} понимает, читает ли
+     * транзакция из реплики. Вложенная REQUIRES_NEW видит выбор внешней и свой не записывает.
+     */
+    private class Router extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            Target target = currentTarget();
+            if (TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.hasResource(transactionTargetKey)) {
+                TransactionSynchronizationManager.bindResource(transactionTargetKey, target);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(transactionTargetKey);
+                    }
+                });
+            }
+            return target;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, чьи данные недавно менялись. Их чтение какое-то время идёт в основную БД,
+ * чтобы после записи не увидеть отстающую реплику.
+ */
+@Component
+public class ReadYourWritesTracker {
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(@Value("${shareit.datasource.read-your-writes:5s}") Duration stickiness,
+                                 @Value("${shareit.datasource.read-your-writes-max-size:100000}") long maxSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickiness)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public void markWritten(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky(Long userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+/**
+ * Пользователь текущего HTTP-запроса (заголовок X-Sharer-User-Id) для кода ниже уровня
+ * контроллеров, которому не передают userId явно, например маршрутизации соединений.
+ */
+public final class RequestUser {
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private RequestUser() {
+    }
+
+    public static Long get() {
+        return CURRENT.get();
+    }
+
+    public static void set(Long userId) {
+        CURRENT.set(userId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
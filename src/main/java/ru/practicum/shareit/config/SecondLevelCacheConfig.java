@@ -0,0 +1,72 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Кэш второго уровня Hibernate для User и Item на JCache (Caffeine). Обе сущности читаются почти
+ * в каждом запросе, а меняются редко. Item.owner — ManyToOne, в записи Item хранится только id
+ * владельца, сам владелец берётся из региона User.
+ *
+ * <p>Регионы создаются здесь с размером и временем жизни из настроек, Hibernate получает готовый
+ * CacheManager и сам регионы не создаёт (missing_cache_strategy=fail). У каждого контекста свой
+ * CacheManager, поэтому несколько контекстов в одной JVM (тесты, бенчмарки) не делят кэш.
+ * Попадания и промахи по регионам видны в actuator как hibernate.second.level.cache.requests.
+ *
+ * <p>При разделении чтения и записи ({@link ReadWriteRoutingConfig}) кэш выключен: сессия не знает,
+ * из какой БД пришла сущность, и отстающая реплика положила бы в общий кэш устаревшую запись,
+ * которую потом прочитали бы и пишущие транзакции.
+ */
+@Configuration
+@ConditionalOnExpression("${spring.jpa.properties.hibernate.cache.use_second_level_cache:false}"
+        + " and '${shareit.datasource.replica.url:}'.isEmpty()")
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${shareit.cache.l2.users.max-size:10000}") long usersMaxSize,
+            @Value("${shareit.cache.l2.users.ttl:10m}") Duration usersTtl,
+            @Value("${shareit.cache.l2.items.max-size:50000}") long itemsMaxSize,
+            @Value("${shareit.cache.l2.items.ttl:10m}") Duration itemsTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit:l2-" + UUID.randomUUID()),
+                        SecondLevelCacheConfig.class.getClassLoader(), new Properties());
+        cacheManager.createCache(User.class.getName(), region(usersMaxSize, usersTtl));
+        cacheManager.createCache(Item.class.getName(), region(itemsMaxSize, itemsTtl));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
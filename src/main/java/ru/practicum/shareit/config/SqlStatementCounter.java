@@ -0,0 +1,55 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Считает SQL-запросы, подготовленные Hibernate в текущем потоке, между {@link #start()} и {@link #stop()}.
+ * Между {@link #startCapture()} и {@link #stopCapture()} дополнительно запоминает их текст,
+ * чтобы проверить план именно того SQL, который сгенерировали репозитории.
+ * Подключается к Hibernate как StatementInspector и не меняет текст запросов.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    public static int current() {
+        int[] count = COUNT.get();
+        return count == null ? 0 : count[0];
+    }
+
+    public static int stop() {
+        int count = current();
+        COUNT.remove();
+        return count;
+    }
+
+    public static void startCapture() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    public static List<String> stopCapture() {
+        List<String> captured = CAPTURED.get();
+        CAPTURED.remove();
+        return captured == null ? List.of() : captured;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        List<String> captured = CAPTURED.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.etag;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.event.BookingCreatedEvent;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.config.ReadYourWritesTracker;
+import ru.practicum.shareit.item.event.CommentCreatedEvent;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Водяные знаки изменений для ETag. У каждого пользователя хранится отметка общих часов
+ * на момент последнего изменения данных, которые он видит (его вещи, комментарии к ним,
+ * бронирования, где он автор или владелец). Отметки сдвигаются после коммита.
+ *
+ * <p>Для пользователя без записи (ещё не менялся или вытеснен) запоминается текущее
+ * значение часов: оно не меньше любой его прежней отметки, поэтому старый ETag не может
+ * совпасть с новым содержимым. Эпоха запуска в ETag сбрасывает все теги при перезапуске.
+ *
+ * <p>Часть ответов меняется и без записи в БД — со временем, когда бронирования начинаются
+ * и заканчиваются. Для них в тег входит номер интервала времени ({@link #timeBucket()}):
+ * считать такие переходы запросом к bookings означало бы сканировать все бронирования
+ * пользователя на каждый условный GET. Внутри интервала тело может измениться при том же теге,
+ * поэтому такие теги слабые ({@link #weakEtag(Object...)}): они обещают только смысловую
+ * эквивалентность, устаревшую не дольше чем на длину интервала.
+ */
+@Component
+public class ChangeWatermarks {
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final Cache<Long, Long> byUser;
+    private final ReadYourWritesTracker readYourWrites;
+    private final long timeBucketMillis;
+
+    public ChangeWatermarks(ReadYourWritesTracker readYourWrites,
+                            @Value("${shareit.etag.watermarks.max-size:100000}") long maxSize,
+                            @Value("${shareit.etag.time-bucket:1m}") Duration timeBucket) {
+        this.readYourWrites = readYourWrites;
+        this.timeBucketMillis = timeBucket.toMillis();
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public long forUser(Long userId) {
+        return byUser.get(userId, id -> clock.get());
+    }
+
+    /**
+     * Счётчик изменений вещей: названия вещей попадают в чужие списки бронирований.
+     */
+    public long items() {
+        return items.get();
+    }
+
+    /**
+     * Счётчик изменений пользователей: имена авторов попадают в комментарии.
+     */
+    public long users() {
+        return users.get();
+    }
+
+    /**
+     * Номер текущего интервала времени длиной shareit.etag.time-bucket — для ответов,
+     * состав которых зависит от текущего момента.
+     */
+    public long timeBucket() {
+        return System.currentTimeMillis() / timeBucketMillis;
+    }
+
+    /**
+     * Слабый ETag для ответов, зависящих от текущего момента: W/ и тот же тег, что у {@link #etag(Object...)}.
+     */
+    public String weakEtag(Object... parts) {
+        return "W/" + etag(parts);
+    }
+
+    /**
+     * Сильный ETag из эпохи запуска и переданных частей.
+     */
+    public String etag(Object... parts) {
+        StringJoiner joiner = new StringJoiner("-", "\"", "\"");
+        joiner.add(epoch);
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        return joiner.toString();
+    }
+
+    @TransactionalEventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        items.incrementAndGet();
+        touch(event.getOwnerId());
+    }
+
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event) {
+        touch(event.getOwnerId());
+    }
+
+    @TransactionalEventListener
+    public void onBookingCreated(BookingCreatedEvent event) {
+        touch(event.getBookerId());
+        touch(event.getOwnerId());
+    }
+
+    @TransactionalEventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        touch(event.getBookerId());
+        touch(event.getOwnerId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        users.incrementAndGet();
+        touch(event.getUserId());
+    }
+
+    /**
+     * Пользователь с новой отметкой какое-то время читает из основной БД: иначе отстающая
+     * реплика отдала бы старое содержимое под новым ETag.
+     */
+    private void touch(Long userId) {
+        readYourWrites.markWritten(userId);
+        byUser.put(userId, clock.incrementAndGet());
+    }
+}
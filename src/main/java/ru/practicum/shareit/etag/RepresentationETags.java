@@ -0,0 +1,86 @@
+package ru.practicum.shareit.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON, CBOR и protobuf одного ответа — разные байты, поэтому у них должны быть разные ETag.
+ * Тег дополняется типом, который выберет content negotiation для данного Accept,
+ * а в ответ добавляется Vary: Accept, чтобы кэши не отдавали одно представление вместо другого.
+ * Тип выбирается так же, как в Spring MVC: первый конкретный тип из Accept,
+ * который умеет записать хотя бы один конвертер.
+ */
+@Component
+@RequiredArgsConstructor
+public class RepresentationETags {
+    private final ContentNegotiationManager contentNegotiationManager;
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    public String forRepresentation(String etag, WebRequest request, ResolvableType bodyType) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        MediaType selected = negotiate(request, bodyType);
+        if (selected == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + selected.getSubtype() + "\"";
+    }
+
+    private MediaType negotiate(WebRequest request, ResolvableType bodyType) {
+        List<MediaType> acceptable = acceptable(request);
+        List<MediaType> producible = producible(bodyType);
+        for (MediaType accepted : acceptable) {
+            for (MediaType candidate : producible) {
+                if (!accepted.isCompatibleWith(candidate)) {
+                    continue;
+                }
+                MediaType specific = accepted.isConcrete() ? accepted : candidate;
+                if (specific.isConcrete()) {
+                    return new MediaType(specific.getType(), specific.getSubtype());
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<MediaType> acceptable(WebRequest request) {
+        if (!(request instanceof NativeWebRequest nativeRequest)) {
+            return List.of(MediaType.ALL);
+        }
+        try {
+            return contentNegotiationManager.resolveMediaTypes(nativeRequest);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return List.of(MediaType.ALL);
+        }
+    }
+
+    private List<MediaType> producible(ResolvableType bodyType) {
+        Class<?> bodyClass = bodyType.toClass();
+        List<MediaType> producible = new ArrayList<>();
+        for (HttpMessageConverter<?> converter : handlerAdapter.getObject().getMessageConverters()) {
+            boolean canWrite = converter instanceof GenericHttpMessageConverter<?> generic
+                    ? generic.canWrite(bodyType.getType(), bodyClass, null)
+                    : converter.canWrite(bodyClass, null);
+            if (canWrite) {
+                producible.addAll(converter.getSupportedMediaTypes(bodyClass));
+            }
+        }
+        return producible;
+    }
+}
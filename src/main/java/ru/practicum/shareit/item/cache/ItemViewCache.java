@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.config.PrimaryReads;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.event.CommentCreatedEvent;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Кэш готовых ответов GET /items/{itemId}. Для каждой вещи хранятся два представления:
+ * общее (вещь и комментарии) и владельца (плюс последнее и следующее бронирование).
+ * Представление владельца живёт не дольше момента начала следующего бронирования,
+ * после которого last/next меняются сами по себе. Записи сбрасываются после коммита
+ * изменений вещи, новых комментариев, смены статуса бронирования и изменения пользователей.
+ * Одновременные промахи по одному ключу Caffeine сводит к одной загрузке. Загрузка идёт
+ * из основной БД, даже если запрос читает из реплики.
+ */
+@Component
+public class ItemViewCache {
+    private final Cache<Key, View> cache;
+    private final PrimaryReads primaryReads;
+
+    public ItemViewCache(MeterRegistry meterRegistry,
+                         PrimaryReads primaryReads,
+                         @Value("${shareit.cache.items.max-size:10000}") long maxSize,
+                         @Value("${shareit.cache.items.ttl:1m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ViewExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "items");
+        this.primaryReads = primaryReads;
+    }
+
+    public View getPublicView(Long itemId, Supplier<View> loader) {
+        return cache.get(new Key(itemId, false), key -> primaryReads.load(loader));
+    }
+
+    public View getOwnerView(Long itemId, Supplier<View> loader) {
+        return cache.get(new Key(itemId, true), key -> primaryReads.load(loader));
+    }
+
+    @TransactionalEventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        invalidate(event.getItem().getId());
+    }
+
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event) {
+        invalidate(event.getItemId());
+    }
+
+    @TransactionalEventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        cache.invalidate(new Key(event.getItemId(), true));
+    }
+
+    /**
+     * Имя пользователя попадает в комментарии к любым вещам, а обратного индекса
+     * «пользователь → вещи» нет, поэтому сбрасывается весь кэш. Переименования редки.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private void invalidate(Long itemId) {
+        cache.invalidate(new Key(itemId, false));
+        cache.invalidate(new Key(itemId, true));
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Key {
+        private Long itemId;
+        private boolean owner;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class View {
+        private ItemResponseDto item;
+        private Long ownerId;
+        private LocalDateTime validUntil;
+    }
+
+    @AllArgsConstructor
+    private static class ViewExpiry implements Expiry<Key, View> {
+        private final Duration ttl;
+
+        @Override
+        public long expireAfterCreate(Key key, View view, long currentTime) {
+            if (view.getValidUntil() == null) {
+                return ttl.toNanos();
+            }
+            Duration untilStale = Duration.between(LocalDateTime.now(), view.getValidUntil());
+            return Math.max(0, Math.min(ttl.toNanos(), untilStale.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, View view, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, view, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, View view, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
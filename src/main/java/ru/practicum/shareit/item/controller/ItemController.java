@@ -2,13 +2,19 @@ package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.ResolvableType;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.etag.RepresentationETags;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,7 +22,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final RepresentationETags representationETags;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final ResolvableType ITEM = ResolvableType.forClass(ItemResponseDto.class);
+    private static final ResolvableType ITEM_LIST =
+            ResolvableType.forClassWithGenerics(List.class, ItemResponseDto.class);
 
     @PostMapping
     public ItemResponseDto create(@RequestHeader(USER_ID_HEADER) Long userId,
@@ -33,19 +43,41 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemResponseDto getById(@RequestHeader(USER_ID_HEADER) Long userId,
-                                   @PathVariable Long itemId) {
+                                   @PathVariable Long itemId,
+                                   WebRequest request) {
+        if (request.checkNotModified(representationETags.forRepresentation(
+                itemService.getETag(userId, itemId), request, ITEM))) {
+            return null;
+        }
         return itemService.getById(userId, itemId);
     }
 
     @GetMapping
-    public List<ItemResponseDto> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+    public List<ItemResponseDto> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
+                                               WebRequest request) {
+        if (request.checkNotModified(representationETags.forRepresentation(
+                itemService.getAllByOwnerETag(userId), request, ITEM_LIST))) {
+            return null;
+        }
         return itemService.getAllByOwner(userId);
     }
 
     @GetMapping("/search")
     public List<ItemDto> search(@RequestHeader(USER_ID_HEADER) Long userId,
-                                @RequestParam String text) {
-        return itemService.search(userId, text);
+                                @RequestParam String text,
+                                @RequestParam(defaultValue = "0") int from,
+                                @RequestParam(defaultValue = "20") int size) {
+        return itemService.search(userId, text, from, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<ItemAvailabilityDto> getAvailability(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                     @PathVariable Long itemId,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime to) {
+        return itemService.getAvailability(userId, itemId, from, to);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CommentCreatedEvent {
+    private Long itemId;
+    private Long ownerId;
+}
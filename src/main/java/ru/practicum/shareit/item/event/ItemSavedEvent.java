@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@Data
+@AllArgsConstructor
+public class ItemSavedEvent {
+    private ItemDto item;
+    private Long ownerId;
+}
@@ -26,7 +26,8 @@ public class ItemMapper {
                 dto.getDescription(),
                 dto.getAvailable(),
                 owner,
-                request
+                request,
+                null
         );
     }
 }
\ No newline at end of file
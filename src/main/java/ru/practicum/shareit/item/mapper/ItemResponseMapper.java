@@ -20,4 +20,17 @@ public class ItemResponseMapper {
                 new ArrayList<>()
         );
     }
+
+    public ItemResponseDto copyOf(ItemResponseDto dto) {
+        return new ItemResponseDto(
+                dto.getId(),
+                dto.getName(),
+                dto.getDescription(),
+                dto.getAvailable(),
+                dto.getLastBooking(),
+                dto.getNextBooking(),
+                dto.getRequestId(),
+                new ArrayList<>(dto.getComments())
+        );
+    }
 }
@@ -1,17 +1,44 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwner_Id(Long ownerId);
 
+    @Query("select i.version as version, i.owner.id as ownerId from Item i where i.id = ?1")
+    Optional<ItemVersionView> findVersionById(Long itemId);
+
+    /**
+     * Сначала совпадение всего названия, затем названия, начинающиеся с text, затем text внутри
+     * названия и в конце совпадения только в описании; внутри группы — по id.
+     */
     @Query(" select i from Item i " +
             "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
             " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
-            " and i.available = true")
-    List<Item> search(String text);
+            " and i.available = true " +
+            "order by case when upper(i.name) = upper(?1) then 0 " +
+            "              when upper(i.name) like upper(concat(?1, '%')) then 1 " +
+            "              when upper(i.name) like upper(concat('%', ?1, '%')) then 2 " +
+            "              else 3 end, i.id")
+    List<Item> search(String text, Pageable pageable);
+
+    @Query(value = "select i.* from items i " +
+            "where i.is_available = true " +
+            "  and (i.name ilike concat('%', :text, '%') or i.description ilike concat('%', :text, '%')) " +
+            "order by greatest(similarity(i.name, :text), similarity(i.description, :text)) desc, i.id " +
+            "limit :size offset :from", nativeQuery = true)
+    List<Item> searchTrigram(String text, int from, int size);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemAnswerDto(i.id, i.name, i.owner.id, i.request.id) " +
+            "from Item i where i.request.id in :requestIds order by i.id")
+    List<ItemAnswerDto> findAnswersByRequestIdIn(Collection<Long> requestIds);
 }
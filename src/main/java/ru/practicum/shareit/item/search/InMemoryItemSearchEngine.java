@@ -0,0 +1,220 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Инвертированный индекс по названию и описанию вещей в памяти процесса.
+ * Каждой вещи присваивается плотный номер документа, постинг-листы и признак
+ * доступности хранятся битовыми множествами. Запрос из нескольких слов — это AND,
+ * каждое слово сопоставляется с токенами по префиксу. Индекс строится из БД при старте
+ * и обновляется после коммита транзакций, сохранивших вещь; события, пришедшие во время
+ * перестроения, копятся и применяются после него, чтобы устаревшая страница из БД их не затёрла.
+ * Результаты ранжируются: за каждое слово запроса точное совпадение со словом названия даёт 3,
+ * совпадение по префиксу в названии — 2, только в описании — 1; при равенстве — по номеру документа.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, BitSet> postings = new TreeMap<>();
+    private final NavigableMap<String, BitSet> namePostings = new TreeMap<>();
+    private final Map<Long, Integer> docByItemId = new HashMap<>();
+    private final List<ItemDto> docs = new ArrayList<>();
+    private final List<Set<String>> docTokens = new ArrayList<>();
+    private final List<Set<String>> docNameTokens = new ArrayList<>();
+    private final BitSet available = new BitSet();
+    /**
+     * Вещи из событий, пришедших во время перестроения; null, когда перестроение не идёт.
+     */
+    private List<ItemDto> savedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            savedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Page<Item> page = itemRepository.findAll(PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+            while (true) {
+                page.forEach(item -> index(ItemMapper.toItemDto(item)));
+                if (!page.hasNext()) {
+                    break;
+                }
+                page = itemRepository.findAll(page.nextPageable());
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                savedDuringRebuild.forEach(this::indexLocked);
+                log.info("Поисковый индекс вещей построен: {} документов, {} токенов, {} изменений за время построения",
+                        docs.size(), postings.size(), savedDuringRebuild.size());
+                savedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (savedDuringRebuild != null) {
+                savedDuringRebuild.add(event.getItem());
+            } else {
+                indexLocked(event.getItem());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size) {
+        Set<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) available.clone();
+            List<BitSet> exactInName = new ArrayList<>(terms.size());
+            List<BitSet> prefixInName = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                BitSet termMatches = new BitSet();
+                postings.subMap(term, true, term + Character.MAX_VALUE, false).values()
+                        .forEach(termMatches::or);
+                matches.and(termMatches);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                BitSet nameMatches = new BitSet();
+                namePostings.subMap(term, true, term + Character.MAX_VALUE, false).values()
+                        .forEach(nameMatches::or);
+                exactInName.add(namePostings.getOrDefault(term, new BitSet()));
+                prefixInName.add(nameMatches);
+            }
+
+            int[] ranked = matches.stream().toArray();
+            int[] scores = new int[ranked.length];
+            for (int i = 0; i < ranked.length; i++) {
+                for (int t = 0; t < exactInName.size(); t++) {
+                    scores[i] += exactInName.get(t).get(ranked[i]) ? 3 : prefixInName.get(t).get(ranked[i]) ? 2 : 1;
+                }
+            }
+            return IntStream.range(0, ranked.length).boxed()
+                    .sorted(Comparator.<Integer>comparingInt(i -> scores[i]).reversed()
+                            .thenComparingInt(i -> ranked[i]))
+                    .skip(from)
+                    .limit(size)
+                    .map(i -> docs.get(ranked[i]))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(ItemDto item) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexLocked(ItemDto item) {
+        Set<String> nameTokens = tokenize(item.getName());
+        Set<String> tokens = new HashSet<>(nameTokens);
+        tokens.addAll(tokenize(item.getDescription()));
+
+        Integer doc = docByItemId.get(item.getId());
+        if (doc == null) {
+            doc = docs.size();
+            docByItemId.put(item.getId(), doc);
+            docs.add(item);
+            docTokens.add(Set.of());
+            docNameTokens.add(Set.of());
+        } else {
+            docs.set(doc, item);
+        }
+
+        replaceTokens(postings, docTokens.get(doc), tokens, doc);
+        replaceTokens(namePostings, docNameTokens.get(doc), nameTokens, doc);
+        docTokens.set(doc, tokens);
+        docNameTokens.set(doc, nameTokens);
+        available.set(doc, Boolean.TRUE.equals(item.getAvailable()));
+    }
+
+    private static void replaceTokens(NavigableMap<String, BitSet> index, Set<String> previous,
+                                      Set<String> tokens, int doc) {
+        for (String token : previous) {
+            if (!tokens.contains(token)) {
+                BitSet bits = index.get(token);
+                bits.clear(doc);
+                if (bits.isEmpty()) {
+                    index.remove(token);
+                }
+            }
+        }
+        for (String token : tokens) {
+            index.computeIfAbsent(token, t -> new BitSet()).set(doc);
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    /**
+     * Доступные для бронирования вещи, в названии или описании которых встречается text,
+     * упорядоченные по релевантности.
+     */
+    List<ItemDto> search(String text, int from, int size);
+}
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -18,5 +20,11 @@ public interface ItemService {
 
     List<ItemResponseDto> getAllByOwner(Long userId);
 
-    List<ItemDto> search(Long userId, String text);
+    String getETag(Long userId, Long itemId);
+
+    String getAllByOwnerETag(Long userId);
+
+    List<ItemDto> search(Long userId, String text, int from, int size);
+
+    List<ItemAvailabilityDto> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
 }
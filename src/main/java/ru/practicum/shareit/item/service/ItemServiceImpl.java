@@ -1,14 +1,20 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.enums.BookingStatus;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ChangeWatermarks;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.cache.ItemViewCache;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.event.CommentCreatedEvent;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemResponseMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -16,11 +22,16 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,8 +40,15 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemViewCache itemViewCache;
+    private final BookingIntervalIndex intervalIndex;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ChangeWatermarks changeWatermarks;
 
     @Override
     @Transactional
@@ -38,16 +56,22 @@ public class ItemServiceImpl implements ItemService {
         User owner = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
-        Item item = ItemMapper.toItem(itemDto, owner, null);
+        ItemRequest request = null;
+        if (itemDto.getRequestId() != null) {
+            request = itemRequestRepository.findById(itemDto.getRequestId())
+                    .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+        }
+
+        Item item = ItemMapper.toItem(itemDto, owner, request);
         item = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemSavedEvent(ItemMapper.toItemDto(item), userId));
         return ItemResponseMapper.toItemResponseDto(item);
     }
 
     @Override
     @Transactional
     public ItemDto update(Long userId, Long itemId, ItemUpdateDto itemDto) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userCache.ensureExists(userId);
 
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
@@ -60,7 +84,9 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getDescription() != null) item.setDescription(itemDto.getDescription());
         if (itemDto.getAvailable() != null) item.setAvailable(itemDto.getAvailable());
 
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        ItemDto updated = ItemMapper.toItemDto(itemRepository.save(item));
+        eventPublisher.publishEvent(new ItemSavedEvent(updated, userId));
+        return updated;
     }
 
     @Override
@@ -83,12 +109,23 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(new CommentCreatedEvent(itemId, item.getOwner().getId()));
         return CommentMapper.toCommentDto(savedComment);
     }
 
     @Override
     public ItemResponseDto getById(Long userId, Long itemId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userCache.ensureExists(userId);
+        ItemViewCache.View publicView = itemViewCache.getPublicView(itemId, () -> loadPublicView(itemId));
+
+        if (!publicView.getOwnerId().equals(userId)) {
+            return ItemResponseMapper.copyOf(publicView.getItem());
+        }
+        ItemViewCache.View ownerView = itemViewCache.getOwnerView(itemId, () -> loadOwnerView(itemId));
+        return ItemResponseMapper.copyOf(ownerView.getItem());
+    }
+
+    private ItemViewCache.View loadPublicView(Long itemId) {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
         ItemResponseDto dto = ItemResponseMapper.toItemResponseDto(item);
@@ -97,58 +134,132 @@ public class ItemServiceImpl implements ItemService {
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList()));
 
-        if (item.getOwner().getId().equals(userId)) {
-            addBookings(dto);
-        }
+        return new ItemViewCache.View(dto, item.getOwner().getId(), null);
+    }
 
-        return dto;
+    /**
+     * Представление владельца читается из БД целиком, а не копируется из общего: общее могло
+     * быть прочитано до изменения, сброс которого пришёл раньше этой загрузки.
+     */
+    private ItemViewCache.View loadOwnerView(Long itemId) {
+        ItemViewCache.View view = loadPublicView(itemId);
+        LocalDateTime validUntil = addBookings(List.of(view.getItem()));
+        return new ItemViewCache.View(view.getItem(), view.getOwnerId(), validUntil);
     }
 
     @Override
     public List<ItemResponseDto> getAllByOwner(Long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userCache.ensureExists(userId);
 
-        return itemRepository.findByOwner_Id(userId).stream()
+        List<ItemResponseDto> items = itemRepository.findByOwner_Id(userId).stream()
                 .map(ItemResponseMapper::toItemResponseDto)
-                .map(this::addBookings)
-                .peek(dto -> {
-                    dto.setComments(commentRepository.findAllByItemId(dto.getId()).stream()
-                            .map(CommentMapper::toCommentDto)
-                            .collect(Collectors.toList()));
-                })
                 .sorted(Comparator.comparing(ItemResponseDto::getId))
                 .collect(Collectors.toList());
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        addBookings(items);
+        addComments(items);
+        return items;
     }
 
+    /**
+     * ETag карточки вещи без загрузки бронирований и комментариев: версия вещи, водяной знак
+     * владельца (вещь, комментарии, бронирования) и счётчик изменений пользователей (имена авторов).
+     * Владелец видит lastBooking и nextBooking, они сдвигаются с началом подтверждённого
+     * бронирования, поэтому для него в тег входит интервал времени и тег слабый.
+     */
     @Override
-    public List<ItemDto> search(Long userId, String text) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public String getETag(Long userId, Long itemId) {
+        userCache.ensureExists(userId);
+
+        ItemVersionView item = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+        long ownerWatermark = changeWatermarks.forUser(item.getOwnerId());
+        if (!item.getOwnerId().equals(userId)) {
+            return changeWatermarks.etag("item", itemId, item.getVersion(), ownerWatermark, changeWatermarks.users());
+        }
+        return changeWatermarks.weakEtag("owner-item", itemId, item.getVersion(), ownerWatermark,
+                changeWatermarks.users(), changeWatermarks.timeBucket());
+    }
 
+    @Override
+    public String getAllByOwnerETag(Long userId) {
+        userCache.ensureExists(userId);
+
+        return changeWatermarks.weakEtag("items", changeWatermarks.forUser(userId), changeWatermarks.users(),
+                changeWatermarks.timeBucket());
+    }
+
+    @Override
+    public List<ItemDto> search(Long userId, String text, int from, int size) {
+        userCache.ensureExists(userId);
+
+        if (from < 0 || size < 1) {
+            throw new ValidationException("Некорректные параметры пагинации");
+        }
         if (text == null || text.isBlank()) return Collections.emptyList();
 
-        return itemRepository.search(text).stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        return itemSearchEngine.search(text.trim(), from, size);
     }
 
-    private ItemResponseDto addBookings(ItemResponseDto dto) {
+    /**
+     * Свободные окна вещи берутся из индекса интервалов, который поддерживают create/approve,
+     * поэтому таблица bookings не читается. Прошедшее время в индексе не хранится, так что
+     * начало периода сдвигается на текущий момент.
+     */
+    @Override
+    public List<ItemAvailabilityDto> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        userCache.ensureExists(userId);
+
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь не найдена");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
         LocalDateTime now = LocalDateTime.now();
+        if (!to.isAfter(now)) {
+            return Collections.emptyList();
+        }
 
-        Optional<Booking> lastBooking = bookingRepository
-                .findFirstByItem_IdAndStatusAndStartLessThanEqualOrderByStartDesc(
-                        dto.getId(), BookingStatus.APPROVED, now);
+        return intervalIndex.freeIntervals(itemId, from.isBefore(now) ? now : from, to).stream()
+                .map(interval -> new ItemAvailabilityDto(interval.getStart(), interval.getEnd()))
+                .toList();
+    }
 
-        Optional<Booking> nextBooking = bookingRepository
-                .findFirstByItem_IdAndStatusAndStartAfterOrderByStartAsc(
-                        dto.getId(), BookingStatus.APPROVED, now);
+    /**
+     * Заполняет last/next бронирования и возвращает ближайшее начало следующего бронирования —
+     * момент, после которого заполненные значения устаревают (или null, если следующих нет).
+     */
+    private LocalDateTime addBookings(List<ItemResponseDto> items) {
+        Map<Long, ItemResponseDto> byId = items.stream()
+                .collect(Collectors.toMap(ItemResponseDto::getId, Function.identity()));
+        LocalDateTime validUntil = null;
 
-        lastBooking.ifPresent(b -> dto.setLastBooking(
-                new BookingShortDto(b.getId(), b.getBooker().getId())));
+        for (ItemBookingView view : bookingRepository.findLastAndNextByItemIds(
+                byId.keySet(), BookingStatus.APPROVED.name(), LocalDateTime.now())) {
+            ItemResponseDto dto = byId.get(view.getItemId());
+            BookingShortDto booking = new BookingShortDto(view.getId(), view.getBookerId());
+            if (Boolean.TRUE.equals(view.getLast())) {
+                dto.setLastBooking(booking);
+            } else {
+                dto.setNextBooking(booking);
+                if (validUntil == null || view.getStart().isBefore(validUntil)) {
+                    validUntil = view.getStart();
+                }
+            }
+        }
+        return validUntil;
+    }
 
-        nextBooking.ifPresent(b -> dto.setNextBooking(
-                new BookingShortDto(b.getId(), b.getBooker().getId())));
+    private void addComments(List<ItemResponseDto> items) {
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(
+                        items.stream().map(ItemResponseDto::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
 
-        return dto;
+        items.forEach(dto -> dto.setComments(comments.getOrDefault(dto.getId(), new ArrayList<>())));
     }
 }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Параметры from, size и cursor постраничных списков. Первая страница читается по смещению from,
+ * следующие — от позиции курсора, без OFFSET.
+ */
+@UtilityClass
+public class KeysetPaging {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public KeysetCursor position(String cursor) {
+        return isFirstPage(cursor) ? KeysetCursor.FIRST_PAGE : KeysetCursor.decode(cursor);
+    }
+
+    /**
+     * Параметр from учитывается только для первого запроса, когда курсора ещё нет,
+     * и задаёт точное смещение, даже если оно не кратно size.
+     */
+    public Pageable pageable(int from, int size, String cursor) {
+        if (from < 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Параметр size должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return isFirstPage(cursor) ? OffsetPageRequest.of(from, size) : PageRequest.of(0, size);
+    }
+
+    /**
+     * Курсор на последнюю запись полной страницы; у неполной страницы продолжения нет.
+     */
+    public <T> String nextCursor(List<T> page, int size, Function<T, LocalDateTime> time, Function<T, Long> id) {
+        if (page.size() < size) {
+            return null;
+        }
+        T last = page.get(page.size() - 1);
+        return new KeysetCursor(time.apply(last), id.apply(last)).encode();
+    }
+
+    private boolean isFirstPage(String cursor) {
+        return cursor == null || cursor.isBlank();
+    }
+}
@@ -1,12 +1,51 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private final ItemRequestService itemRequestService;
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @PostMapping
+    public ItemRequestResponseDto create(@RequestHeader(USER_ID_HEADER) Long userId,
+                                         @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        return itemRequestService.create(userId, itemRequestDto);
+    }
+
+    @GetMapping
+    public List<ItemRequestResponseDto> getOwn(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return itemRequestService.getOwn(userId);
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestResponseDto>> getAll(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "20") int size,
+                                                               @RequestParam(required = false) String cursor) {
+        ItemRequestPage page = itemRequestService.getAll(userId, from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestResponseDto getById(@RequestHeader(USER_ID_HEADER) Long userId,
+                                          @PathVariable Long requestId) {
+        return itemRequestService.getById(userId, requestId);
+    }
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.dto;
 
+import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +12,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ItemRequestDto {
     private Long id;
+
+    @NotBlank(message = "Description обязательно")
     private String description;
     private Long requestorId;
     private LocalDateTime created;
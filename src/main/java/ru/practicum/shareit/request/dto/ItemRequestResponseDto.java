@@ -0,0 +1,19 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemRequestResponseDto {
+    private Long id;
+    private String description;
+    private Long requestorId;
+    private LocalDateTime created;
+    private List<ItemAnswerDto> items;
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.mapper;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@UtilityClass
+public class ItemRequestMapper {
+    public ItemRequest toItemRequest(ItemRequestDto dto, User requestor, LocalDateTime created) {
+        return new ItemRequest(null, dto.getDescription(), requestor, created);
+    }
+
+    public ItemRequestResponseDto toItemRequestResponseDto(ItemRequest request, List<ItemAnswerDto> items) {
+        return new ItemRequestResponseDto(
+                request.getId(),
+                request.getDescription(),
+                request.getRequestor().getId(),
+                request.getCreated(),
+                items
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(Long requestorId);
+
+    /**
+     * Лента чужих запросов от новых к старым. Позиция задаётся парой (created, id),
+     * поэтому стоимость страницы не зависит от её номера (индекс ix_requests_created).
+     */
+    @Query("select r from ItemRequest r " +
+            "where r.requestor.id <> :userId " +
+            "and (r.created < :cursorCreated or (r.created = :cursorCreated and r.id < :cursorId)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findOthers(Long userId, LocalDateTime cursorCreated, Long cursorId, Pageable pageable);
+}
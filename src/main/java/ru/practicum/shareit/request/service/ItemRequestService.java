@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestResponseDto create(Long userId, ItemRequestDto itemRequestDto);
+
+    List<ItemRequestResponseDto> getOwn(Long userId);
+
+    ItemRequestPage getAll(Long userId, int from, int size, String cursor);
+
+    ItemRequestResponseDto getById(Long userId, Long requestId);
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPaging;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+
+    @Override
+    @Transactional
+    public ItemRequestResponseDto create(Long userId, ItemRequestDto itemRequestDto) {
+        userCache.ensureExists(userId);
+
+        User requestor = userRepository.getReferenceById(userId);
+        ItemRequest request = itemRequestRepository.save(
+                ItemRequestMapper.toItemRequest(itemRequestDto, requestor, LocalDateTime.now()));
+        return ItemRequestMapper.toItemRequestResponseDto(request, Collections.emptyList());
+    }
+
+    @Override
+    public List<ItemRequestResponseDto> getOwn(Long userId) {
+        userCache.ensureExists(userId);
+
+        return withAnswers(itemRequestRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(userId));
+    }
+
+    @Override
+    public ItemRequestPage getAll(Long userId, int from, int size, String cursor) {
+        userCache.ensureExists(userId);
+
+        KeysetCursor position = KeysetPaging.position(cursor);
+        List<ItemRequestResponseDto> requests = withAnswers(itemRequestRepository.findOthers(
+                userId, position.getTime(), position.getId(), KeysetPaging.pageable(from, size, cursor)));
+
+        return new ItemRequestPage(requests, KeysetPaging.nextCursor(
+                requests, size, ItemRequestResponseDto::getCreated, ItemRequestResponseDto::getId));
+    }
+
+    @Override
+    public ItemRequestResponseDto getById(Long userId, Long requestId) {
+        userCache.ensureExists(userId);
+
+        ItemRequest request = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+        return withAnswers(List.of(request)).get(0);
+    }
+
+    /**
+     * Ответы на все запросы страницы загружаются одним запросом request_id IN (...).
+     */
+    private List<ItemRequestResponseDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<ItemAnswerDto>> answers = itemRepository.findAnswersByRequestIdIn(
+                        requests.stream().map(ItemRequest::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestResponseDto(
+                        request, answers.getOrDefault(request.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.user.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserChangedEvent {
+    private Long userId;
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.PrimaryReads;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш пользователей. Служит прежде всего
+ * для проверки X-Sharer-User-Id: при попадании в кэш запроса к users нет.
+ * Метрики попаданий и промахов доступны в actuator как cache.gets{cache=users}.
+ * Промахи читаются из основной БД, даже если запрос читает из реплики.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, UserDto> cache;
+
+    public UserCache(UserRepository userRepository,
+                     PrimaryReads primaryReads,
+                     MeterRegistry meterRegistry,
+                     @Value("${shareit.cache.users.max-size:10000}") long maxSize,
+                     @Value("${shareit.cache.users.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.primaryReads = primaryReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public UserDto get(Long userId) {
+        UserDto user = cache.get(userId, id -> primaryReads.load(() -> userRepository.findById(id)
+                .map(UserMapper::toUserDto)
+                .orElse(null)));
+        if (user == null) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+        return user;
+    }
+
+    public void ensureExists(Long userId) {
+        get(userId);
+    }
+
+    public void put(UserDto user) {
+        cache.put(user.getId(), user);
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+}
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.event.UserChangedEvent;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -16,6 +18,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDto create(UserDto userDto) {
@@ -42,14 +46,15 @@ public class UserServiceImpl implements UserService {
             existing.setName(userDto.getName());
         }
 
-        return UserMapper.toUserDto(userRepository.save(existing));
+        UserDto updated = UserMapper.toUserDto(userRepository.save(existing));
+        userCache.invalidate(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
+        return updated;
     }
 
     @Override
     public UserDto getById(Long id) {
-        return userRepository.findById(id)
-                .map(UserMapper::toUserDto)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        return userCache.get(id);
     }
 
     @Override
@@ -62,5 +67,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public void delete(Long id) {
         userRepository.deleteById(id);
+        userCache.invalidate(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,3 @@
+ALTER SEQUENCE bookings_seq RESTART WITH GREATEST(
+    (SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'BOOKINGS_SEQ'),
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings));
@@ -0,0 +1,9 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS ix_items_name_trgm_available
+    ON items USING gin (name gin_trgm_ops)
+    WHERE is_available = true;
+
+CREATE INDEX IF NOT EXISTS ix_items_description_trgm_available
+    ON items USING gin (description gin_trgm_ops)
+    WHERE is_available = true;
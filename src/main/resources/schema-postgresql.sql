@@ -0,0 +1,24 @@
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_waiting_start
+    ON bookings (booker_id, start_date DESC, id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_rejected_start
+    ON bookings (booker_id, start_date DESC, id DESC)
+    WHERE status = 'REJECTED';
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_waiting_start
+    ON bookings (item_id, start_date DESC, id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_rejected_start
+    ON bookings (item_id, start_date DESC, id DESC)
+    WHERE status = 'REJECTED';
+
+CREATE INDEX IF NOT EXISTS ix_bookings_active_end
+    ON bookings (end_date)
+    INCLUDE (item_id, start_date)
+    WHERE status IN ('WAITING', 'APPROVED');
+
+SELECT setval('bookings_seq', GREATEST(
+    (SELECT last_value FROM bookings_seq),
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings)));
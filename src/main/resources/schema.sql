@@ -25,6 +25,7 @@ CREATE TABLE IF NOT EXISTS items (
 
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    version BIGINT DEFAULT 0 NOT NULL,
 
     CONSTRAINT pk_items PRIMARY KEY (id),
     CONSTRAINT fk_items_owner FOREIGN KEY (owner_id)
@@ -44,6 +45,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     booker_id BIGINT NOT NULL,
 
     status VARCHAR(50) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
 
     CONSTRAINT pk_bookings PRIMARY KEY (id),
 
@@ -58,6 +60,11 @@ CREATE TABLE IF NOT EXISTS bookings (
     )
 );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
 
@@ -74,3 +81,17 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT fk_comments_author FOREIGN KEY (author_id)
         REFERENCES users(id)
 );
+
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS ix_requests_requestor ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_item_status_end ON bookings (booker_id, item_id, status, end_date);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id);
+CREATE INDEX IF NOT EXISTS ix_comments_author ON comments (author_id);
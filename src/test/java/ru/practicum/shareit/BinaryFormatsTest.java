@@ -0,0 +1,116 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Выбор формата ответа по Accept: JSON по умолчанию, CBOR и protobuf по запросу.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:binary-formats;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class BinaryFormatsTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = user();
+        User booker = user();
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        booking = bookingRepository.save(new Booking(null, item, booker, start, start.plusDays(1),
+                BookingStatus.APPROVED, null));
+    }
+
+    @Test
+    void jsonStaysDefault() throws Exception {
+        mockMvc.perform(get("/bookings/owner").header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void ownerBookingsAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/bookings/owner").header(USER_ID_HEADER, owner.getId())
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode bookings = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals(1, bookings.size());
+        assertEquals(booking.getId(), bookings.get(0).get("id").asLong());
+        assertEquals("Дрель", bookings.get(0).get("item").get("name").asText());
+        assertEquals(booking.getStart(), LocalDateTime.parse(bookings.get(0).get("start").asText()));
+    }
+
+    @Test
+    void ownerBookingsAsProtobuf() throws Exception {
+        byte[] body = mockMvc.perform(get("/bookings/owner").header(USER_ID_HEADER, owner.getId())
+                        .accept(PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<ByteString> bookings = UnknownFieldSet.parseFrom(body).getField(1).getLengthDelimitedList();
+        assertEquals(1, bookings.size());
+        UnknownFieldSet fields = UnknownFieldSet.parseFrom(bookings.get(0));
+        assertEquals(booking.getId(), fields.getField(1).getVarintList().get(0));
+        assertEquals(booking.getStart().toEpochSecond(ZoneOffset.UTC), fields.getField(2).getVarintList().get(0));
+        assertEquals(BookingStatus.APPROVED.ordinal() + 1L, fields.getField(4).getVarintList().get(0));
+        UnknownFieldSet item = UnknownFieldSet.parseFrom(fields.getField(6).getLengthDelimitedList().get(0));
+        assertEquals("Дрель", item.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+    }
+
+    @Test
+    void protobufIsNotAcceptableForOtherResponses() throws Exception {
+        mockMvc.perform(get("/users/{id}", owner.getId()).accept(PROTOBUF))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    private User user() {
+        long id = SEQUENCE.incrementAndGet();
+        return userRepository.save(new User(null, "binary" + id + "@mail.ru", "binary" + id));
+    }
+}
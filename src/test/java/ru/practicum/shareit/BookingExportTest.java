@@ -0,0 +1,85 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Потоковая выгрузка бронирований владельца в NDJSON и CSV.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-export;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class BookingExportTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void exportsEveryOwnerBookingAsNdjsonAndCsv() throws Exception {
+        User owner = userRepository.save(new User(null, "export-owner@mail.ru", "owner"));
+        User booker = userRepository.save(new User(null, "export-booker@mail.ru", "booker"));
+        Item item = itemRepository.save(new Item(null, "Дрель \"Bosch\", ударная", "Дрель", true, owner, null, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        int count = 2500;
+        for (int i = 0; i < count; i++) {
+            bookingRepository.save(new Booking(null, item, booker, start.plusDays(i), start.plusDays(i).plusHours(1),
+                    BookingStatus.WAITING, null));
+        }
+
+        String[] ndjson = export(owner, "ndjson").split("\n");
+        assertEquals(count, ndjson.length);
+        assertTrue(ndjson[0].startsWith("{\"id\":"));
+
+        String[] csv = export(owner, "csv").split("\n");
+        assertEquals(count + 1, csv.length);
+        assertEquals("id,start,end,status,bookerId,itemId,itemName", csv[0]);
+        assertTrue(csv[1].endsWith(",\"Дрель \"\"Bosch\"\", ударная\""));
+    }
+
+    @Test
+    void rejectsUnknownFormatBeforeStreaming() throws Exception {
+        User owner = userRepository.save(new User(null, "export-xml@mail.ru", "owner"));
+
+        mockMvc.perform(get("/bookings/owner/export").header(USER_ID_HEADER, owner.getId())
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String export(User owner, String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/bookings/owner/export").header(USER_ID_HEADER, owner.getId())
+                        .param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
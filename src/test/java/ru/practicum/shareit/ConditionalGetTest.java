@@ -0,0 +1,171 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag и If-None-Match: повторный запрос без изменений получает 304,
+ * после изменения через API — новое содержимое и новый тег.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional-get;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void itemIsNotModifiedUntilOwnerUpdatesIt() throws Exception {
+        User owner = user();
+        User viewer = user();
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null, null));
+
+        String etag = etag("/items/" + item.getId(), viewer);
+        mockMvc.perform(get("/items/{id}", item.getId()).header(USER_ID_HEADER, viewer.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/items/{id}", item.getId()).header(USER_ID_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Дрель ударная\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{id}", item.getId()).header(USER_ID_HEADER, viewer.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, etag("/items/" + item.getId(), viewer));
+    }
+
+    @Test
+    void renamedCommentAuthorIsNotServedFromCache() throws Exception {
+        User owner = user();
+        User author = user();
+        Item item = itemRepository.save(new Item(null, "Лодка", "Надувная лодка", true, owner, null, null));
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        bookingRepository.save(new Booking(null, item, author, start, start.plusDays(1), BookingStatus.APPROVED, null));
+        mockMvc.perform(post("/items/{id}/comment", item.getId()).header(USER_ID_HEADER, author.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\": \"Не протекает\"}"))
+                .andExpect(status().isOk());
+
+        String etag = etag("/items/" + item.getId(), owner);
+        mockMvc.perform(patch("/users/{id}", author.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Новое имя\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{id}", item.getId()).header(USER_ID_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].authorName").value("Новое имя"));
+    }
+
+    @Test
+    void bookingListIsNotModifiedUntilBookerCreatesBooking() throws Exception {
+        User owner = user();
+        User booker = user();
+        Item item = itemRepository.save(new Item(null, "Палатка", "Палатка на двоих", true, owner, null, null));
+
+        String etag = etag("/bookings", booker);
+        mockMvc.perform(get("/bookings").header(USER_ID_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        DateTimeFormatter format = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        mockMvc.perform(post("/bookings").header(USER_ID_HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemId\": " + item.getId() + ", \"start\": \"" + start.format(format)
+                                + "\", \"end\": \"" + start.plusDays(1).format(format) + "\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/bookings").header(USER_ID_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void eachRepresentationHasItsOwnETag() throws Exception {
+        User owner = user();
+        Item item = itemRepository.save(new Item(null, "Рюкзак", "Рюкзак на 40 литров", true, owner, null, null));
+
+        String jsonEtag = mockMvc.perform(get("/items/{id}", item.getId()).header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String cborEtag = mockMvc.perform(get("/items/{id}", item.getId()).header(USER_ID_HEADER, owner.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonEtag, cborEtag);
+
+        mockMvc.perform(get("/items/{id}", item.getId()).header(USER_ID_HEADER, owner.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    void timeDependentListsHaveWeakETags() throws Exception {
+        User booker = user();
+
+        assertTrue(etag("/bookings?state=FUTURE", booker).startsWith("W/"));
+        assertTrue(etag("/items", booker).startsWith("W/"));
+        assertFalse(etag("/bookings?state=ALL", booker).startsWith("W/"));
+    }
+
+    private String etag(String path, User user) throws Exception {
+        String etag = mockMvc.perform(get(path).header(USER_ID_HEADER, user.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private User user() {
+        long id = SEQUENCE.incrementAndGet();
+        return userRepository.save(new User(null, "etag" + id + "@mail.ru", "etag" + id));
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет SQL-запросов на вызов эндпоинта: число запросов не должно зависеть от объёма данных
+ * и не должно превышать заданного потолка. Ловит N+1 в сервисах до продакшена.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final int SMALL = 3;
+    private static final int LARGE = 30;
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void ownerItemsAreConstantInNumberOfItems() throws Exception {
+        assertBudget(6, dataset -> get("/items").header(USER_ID_HEADER, dataset.owner.getId()));
+    }
+
+    @Test
+    void itemByIdIsConstantInNumberOfComments() throws Exception {
+        assertBudget(9, dataset -> get("/items/{id}", dataset.item.getId())
+                .header(USER_ID_HEADER, dataset.owner.getId()));
+    }
+
+    @Test
+    void ownerBookingsAreConstantInNumberOfBookings() throws Exception {
+        assertBudget(3, dataset -> get("/bookings/owner").param("size", "100")
+                .header(USER_ID_HEADER, dataset.owner.getId()));
+    }
+
+    @Test
+    void bookerBookingsAreConstantInNumberOfBookings() throws Exception {
+        assertBudget(3, dataset -> get("/bookings").param("size", "100")
+                .header(USER_ID_HEADER, dataset.booker.getId()));
+    }
+
+    @Test
+    void searchIsConstantInNumberOfHits() throws Exception {
+        assertBudget(3, dataset -> get("/items/search").param("text", dataset.marker).param("size", "100")
+                .header(USER_ID_HEADER, dataset.booker.getId()));
+    }
+
+    private void assertBudget(long budget, Function<Dataset, MockHttpServletRequestBuilder> request) throws Exception {
+        long small = statements(request.apply(seed(SMALL)));
+        long large = statements(request.apply(seed(LARGE)));
+
+        assertEquals(small, large, "Число SQL-запросов растёт вместе с объёмом данных");
+        assertTrue(large <= budget, "Превышен бюджет SQL-запросов: " + large + " > " + budget);
+    }
+
+    private long statements(MockHttpServletRequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Владелец с size вещами, у каждой вещи прошлое и будущее подтверждённое бронирование
+     * от одного арендатора и комментарий от отдельного автора.
+     */
+    private Dataset seed(int size) {
+        String marker = "marker" + SEQUENCE.incrementAndGet();
+        User owner = user();
+        User booker = user();
+        LocalDateTime now = LocalDateTime.now();
+        Item first = null;
+        for (int i = 0; i < size; i++) {
+            Item item = itemRepository.save(new Item(null, marker + " вещь " + i, "описание", true, owner, null, null));
+            if (first == null) {
+                first = item;
+            }
+            bookingRepository.save(new Booking(null, item, booker,
+                    now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED, null));
+            bookingRepository.save(new Booking(null, item, booker,
+                    now.plusDays(2), now.plusDays(3), BookingStatus.APPROVED, null));
+            commentRepository.save(new Comment(null, "комментарий", first, user(), now));
+        }
+        return new Dataset(owner, booker, first, marker);
+    }
+
+    private User user() {
+        long id = SEQUENCE.incrementAndGet();
+        return userRepository.save(new User(null, "user" + id + "@mail.ru", "user" + id));
+    }
+
+    private record Dataset(User owner, User booker, Item item, String marker) {
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.SqlStatementCounter;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет по EXPLAIN, что горячие запросы репозиториев выбирают свои индексы из schema.sql.
+ * План строится для SQL, который Hibernate сгенерировал при вызове метода репозитория,
+ * а не для написанного вручную аналога.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:schema-index;DB_CLOSE_DELAY=-1")
+class SchemaIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final List<Long> IDS = List.of(1L, 2L, 3L);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void bookerBookingsUseBookerStartIndex() {
+        assertUsesIndex(() -> bookingRepository.findBookerBookings(1L, NOW, Long.MAX_VALUE, PageRequest.of(0, 10)),
+                "ix_bookings_booker_start");
+    }
+
+    @Test
+    void bookerBookingsByStatusUseBookerStatusStartIndex() {
+        assertUsesIndex(() -> bookingRepository.findBookerBookingsByStatus(
+                        1L, BookingStatus.WAITING, NOW, Long.MAX_VALUE, PageRequest.of(0, 10)),
+                "ix_bookings_booker_status_start");
+    }
+
+    @Test
+    void finishedBookingCheckUsesBookerItemStatusEndIndex() {
+        assertUsesIndex(() -> bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                        1L, 1L, BookingStatus.APPROVED, NOW),
+                "ix_bookings_booker_item_status_end");
+    }
+
+    @Test
+    void ownerBookingsUseItemsOwnerIndex() {
+        assertUsesIndex(() -> bookingRepository.findOwnerBookings(1L, NOW, Long.MAX_VALUE, PageRequest.of(0, 10)),
+                "ix_items_owner");
+    }
+
+    @Test
+    void lastAndNextBookingsUseItemStatusStartIndex() {
+        assertUsesIndex(() -> bookingRepository.findLastAndNextByItemIds(IDS, BookingStatus.APPROVED.name(), NOW),
+                "ix_bookings_item_status_start");
+    }
+
+    @Test
+    void ownerItemsUseItemsOwnerIndex() {
+        assertUsesIndex(() -> itemRepository.findByOwner_Id(1L), "ix_items_owner");
+    }
+
+    @Test
+    void commentsOfItemsUseCommentsItemIndex() {
+        assertUsesIndex(() -> commentRepository.findAllByItemIdIn(IDS), "ix_comments_item");
+    }
+
+    @Test
+    void commentsOfItemUseCommentsItemIndex() {
+        assertUsesIndex(() -> commentRepository.findAllByItemId(1L), "ix_comments_item");
+    }
+
+    /**
+     * Выполняет вызов репозитория, перехватывает первый подготовленный Hibernate SQL и строит его план.
+     * Параметры связываются значением NULL: H2 выбирает индекс при подготовке запроса, не глядя на значения.
+     */
+    private void assertUsesIndex(Runnable repositoryCall, String index) {
+        List<String> statements;
+        SqlStatementCounter.startCapture();
+        try {
+            repositoryCall.run();
+        } finally {
+            statements = SqlStatementCounter.stopCapture();
+        }
+        assertFalse(statements.isEmpty(), "Вызов репозитория не выполнил ни одного запроса");
+
+        String sql = statements.get(0);
+        List<String> plan = jdbcTemplate.query("explain " + sql, ps -> {
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setObject(i, null);
+            }
+        }, (rs, rowNum) -> rs.getString(1));
+
+        assertTrue(String.join("\n", plan).toLowerCase(Locale.ROOT).contains(index),
+                "Запрос не использует " + index + ":\n" + sql + "\n" + plan);
+    }
+}
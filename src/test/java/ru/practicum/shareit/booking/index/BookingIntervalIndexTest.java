@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+    private final BookingIntervalIndex index = new BookingIntervalIndex(mock(BookingRepository.class));
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @Test
+    void rejectsOverlapAndAllowsAdjacentIntervals() {
+        index.reserve(1L, start, start.plusHours(2));
+
+        assertThrows(ConflictException.class, () -> index.reserve(1L, start.plusHours(1), start.plusHours(3)));
+        assertThrows(ConflictException.class, () -> index.reserve(1L, start.minusHours(1), start.plusMinutes(1)));
+        index.reserve(1L, start.plusHours(2), start.plusHours(3));
+        index.reserve(1L, start.minusHours(1), start);
+        index.reserve(2L, start, start.plusHours(2));
+    }
+
+    @Test
+    void verifiedReservationReplacesSavedButKeepsUnsavedIntervals() {
+        BookingIntervalIndex.Interval stale = index.reserve(1L, start, start.plusHours(2));
+        stale.setBookingId(10L);
+        index.reserve(1L, start.plusHours(5), start.plusHours(6));
+
+        index.reserveVerified(1L, start.plusHours(1), start.plusHours(3));
+
+        assertThrows(ConflictException.class,
+                () -> index.reserveVerified(1L, start.plusHours(2), start.plusHours(4)));
+        assertThrows(ConflictException.class,
+                () -> index.reserveVerified(1L, start.plusHours(5), start.plusHours(7)));
+        assertEquals(1, index.freeIntervals(1L, start, start.plusHours(1)).size());
+    }
+
+    @Test
+    void warmUpKeepsReservationsMadeBeforeIt() {
+        BookingRepository repository = mock(BookingRepository.class);
+        BookingIntervalView saved = mock(BookingIntervalView.class);
+        when(saved.getId()).thenReturn(5L);
+        when(saved.getItemId()).thenReturn(1L);
+        when(saved.getStart()).thenReturn(start.plusHours(10));
+        when(saved.getEnd()).thenReturn(start.plusHours(12));
+        when(repository.findIntervalsByStatusInAndEndAfter(any(), any())).thenReturn(List.of(saved));
+        BookingIntervalIndex warmed = new BookingIntervalIndex(repository);
+        warmed.reserve(1L, start, start.plusHours(2));
+
+        warmed.warmUp();
+
+        assertThrows(ConflictException.class, () -> warmed.reserve(1L, start.plusHours(1), start.plusHours(3)));
+        assertThrows(ConflictException.class, () -> warmed.reserve(1L, start.plusHours(11), start.plusHours(13)));
+    }
+
+    @Test
+    void releasedIntervalCanBeReservedAgain() {
+        BookingIntervalIndex.Interval interval = index.reserve(1L, start, start.plusHours(2));
+        index.release(1L, interval);
+
+        index.reserve(1L, start, start.plusHours(2));
+    }
+
+    @Test
+    void freeIntervalsAreGapsBetweenReservations() {
+        index.reserve(1L, start.minusHours(1), start.plusHours(1));
+        index.reserve(1L, start.plusHours(2), start.plusHours(3));
+        index.reserve(1L, start.plusHours(3), start.plusHours(4));
+        index.reserve(1L, start.plusHours(10), start.plusHours(12));
+
+        List<BookingIntervalIndex.Interval> free = index.freeIntervals(1L, start, start.plusHours(11));
+
+        assertEquals(2, free.size());
+        assertEquals(start.plusHours(1), free.get(0).getStart());
+        assertEquals(start.plusHours(2), free.get(0).getEnd());
+        assertEquals(start.plusHours(4), free.get(1).getStart());
+        assertEquals(start.plusHours(10), free.get(1).getEnd());
+    }
+
+    @Test
+    void wholePeriodIsFreeForItemWithoutReservations() {
+        List<BookingIntervalIndex.Interval> free = index.freeIntervals(3L, start, start.plusDays(1));
+
+        assertEquals(1, free.size());
+        assertEquals(start, free.get(0).getStart());
+        assertEquals(start.plusDays(1), free.get(0).getEnd());
+    }
+
+    @Test
+    void onlyOneOfRacingReservationsWins() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int offset = i;
+            results.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    index.reserve(1L, start.plusMinutes(offset), start.plusHours(1).plusMinutes(offset));
+                    return true;
+                } catch (ConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                winners++;
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertEquals(1, winners);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Два пакета по две вещи при двух полосах: в части раундов порядок полос по возрастанию id
+ * у пакетов противоположный, (0, 1) и (1, 0). При захвате в порядке id такие пакеты
+ * взаимоблокировались бы; при захвате в порядке полос все раунды завершаются.
+ * Пары выбираются случайно, поэтому тест не зависит от того, как id раскладываются по полосам.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:crossing-stripes;DB_CLOSE_DELAY=-1",
+        "shareit.booking.lock.mode=jvm",
+        "shareit.booking.lock.stripes=2"
+})
+class CrossingStripesBatchTest {
+    private static final int ROUNDS = 300;
+    private static final int ITEMS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void batchesWithCrossingStripesDoNotDeadlock() throws Exception {
+        User owner = userRepository.save(new User(null, "owner@mail.ru", "owner"));
+        User booker = userRepository.save(new User(null, "booker@mail.ru", "booker"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(itemRepository.save(new Item(null, "Вещь " + i, "Вещь", true, owner, null, null)));
+        }
+        Random random = new Random(42);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        for (int round = 0; round < ROUNDS; round++) {
+            LocalDateTime start = base.plusHours(round * 2L);
+            Collections.shuffle(items, random);
+            List<Item> firstItems = List.copyOf(items.subList(0, 2));
+            List<Item> secondItems = List.copyOf(items.subList(2, 4));
+            Future<List<BookingBatchResultDto>> first = executor.submit(
+                    () -> book(barrier, booker, firstItems, start));
+            Future<List<BookingBatchResultDto>> second = executor.submit(
+                    () -> book(barrier, booker, secondItems, start));
+
+            for (BookingBatchResultDto result : first.get(10, TimeUnit.SECONDS)) {
+                assertNull(result.getError());
+            }
+            for (BookingBatchResultDto result : second.get(10, TimeUnit.SECONDS)) {
+                assertNull(result.getError());
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private List<BookingBatchResultDto> book(CyclicBarrier barrier, User booker, List<Item> items,
+                                             LocalDateTime start) throws Exception {
+        List<BookingDto> batch = items.stream()
+                .map(item -> new BookingDto(null, item.getId(), start, start.plusHours(1), null))
+                .toList();
+        barrier.await(10, TimeUnit.SECONDS);
+        return bookingService.createBatch(booker.getId(), batch);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * from, не кратный size, сдвигает выборку ровно на from строк, а не до границы страницы.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-offset-paging;DB_CLOSE_DELAY=-1")
+class BookingOffsetPagingTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void fromIsExactOffset() {
+        User owner = userRepository.save(new User(null, "offset-owner@mail.ru", "owner"));
+        User booker = userRepository.save(new User(null, "offset-booker@mail.ru", "booker"));
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null, null));
+        List<Long> newestFirst = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.now().plusDays(10);
+        for (int i = 6; i >= 0; i--) {
+            LocalDateTime start = base.plusDays(i * 2L);
+            newestFirst.add(bookingRepository.save(new Booking(null, item, booker,
+                    start, start.plusDays(1), BookingStatus.WAITING, null)).getId());
+        }
+
+        List<Long> page = bookingService.getUserBookings(booker.getId(), "ALL", 3, 2, null)
+                .getBookings().stream()
+                .map(BookingResponseDto::getId)
+                .toList();
+
+        assertEquals(newestFirst.subList(3, 5), page);
+    }
+}
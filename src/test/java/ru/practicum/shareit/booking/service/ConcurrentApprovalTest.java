@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сотни одновременных решений по одному бронированию: ровно одно меняет статус,
+ * остальные получают «уже обработано», а в БД остаётся решение победителя.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:concurrent-approval;DB_CLOSE_DELAY=-1")
+class ConcurrentApprovalTest {
+    private static final int THREADS = 300;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void exactlyOneOfConcurrentApprovalsWins() throws Exception {
+        User owner = userRepository.save(new User(null, "owner@mail.ru", "owner"));
+        User booker = userRepository.save(new User(null, "booker@mail.ru", "booker"));
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null, null));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            LocalDateTime start = LocalDateTime.now().plusDays(10 + round * 2L);
+            Booking booking = bookingRepository.save(new Booking(null, item, booker,
+                    start, start.plusDays(1), BookingStatus.WAITING, null));
+
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<BookingResponseDto>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean approved = i % 2 == 0;
+                results.add(executor.submit(() -> {
+                    ready.await();
+                    try {
+                        return bookingService.approve(owner.getId(), booking.getId(), approved);
+                    } catch (ValidationException | ConflictException e) {
+                        return null;
+                    }
+                }));
+            }
+            ready.countDown();
+
+            List<BookingResponseDto> winners = new ArrayList<>();
+            for (Future<BookingResponseDto> result : results) {
+                BookingResponseDto response = result.get(60, TimeUnit.SECONDS);
+                if (response != null) {
+                    winners.add(response);
+                }
+            }
+
+            assertEquals(1, winners.size());
+            Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+            assertEquals(winners.get(0).getStatus(), stored.getStatus().name());
+            assertEquals(1L, stored.getVersion());
+            assertTrue(stored.getStatus() != BookingStatus.WAITING);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Маршрутизация на двух встроенных H2: основная БД и «реплика».
+ */
+class ReadWriteRoutingDataSourceTest {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private ReadWriteRoutingDataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        RequestUser.clear();
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        dataSource = routing("select 0");
+
+        assertTrue(url(true).contains("replica"));
+        assertTrue(url(false).contains("primary"));
+        assertTrue(new JdbcTemplate(dataSource).execute(connectionUrl()).contains("primary"));
+    }
+
+    @Test
+    void userReadsFromPrimaryAfterOwnWrite() {
+        dataSource = routing("select 0");
+
+        RequestUser.set(1L);
+        url(false);
+        assertTrue(url(true).contains("primary"));
+
+        RequestUser.set(2L);
+        assertTrue(url(true).contains("replica"));
+    }
+
+    @Test
+    void laggingReplicaIsNotUsed() {
+        dataSource = routing("select 60");
+
+        assertTrue(url(true).contains("primary"));
+    }
+
+    @Test
+    void unreachableLagQueryDisablesReplica() {
+        dataSource = routing("select lag from missing_table");
+
+        assertTrue(url(true).contains("primary"));
+    }
+
+    @Test
+    void cacheLoadsReadPrimaryInsideReplicaTransaction() {
+        dataSource = routing("select 0");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        PrimaryReads primaryReads = new PrimaryReads(new StaticListableBeanFactory(Map.of("dataSource", dataSource))
+                .getBeanProvider(ReadWriteRoutingDataSource.class), transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        List<String> afterReplicaRead = readOnly.execute(status -> List.of(
+                jdbc.execute(connectionUrl()),
+                primaryReads.load(() -> jdbc.execute(connectionUrl())),
+                jdbc.execute(connectionUrl())));
+        assertTrue(afterReplicaRead.get(0).contains("replica"));
+        assertTrue(afterReplicaRead.get(1).contains("primary"));
+        assertTrue(afterReplicaRead.get(2).contains("replica"));
+
+        List<String> beforeAnyRead = readOnly.execute(status -> List.of(
+                primaryReads.load(() -> jdbc.execute(connectionUrl())),
+                jdbc.execute(connectionUrl())));
+        assertTrue(beforeAnyRead.get(0).contains("primary"));
+        assertTrue(beforeAnyRead.get(1).contains("primary"));
+    }
+
+    private String url(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> new JdbcTemplate(dataSource).execute(connectionUrl()));
+    }
+
+    private static ConnectionCallback<String> connectionUrl() {
+        return connection -> connection.getMetaData().getURL();
+    }
+
+    private static ReadWriteRoutingDataSource routing(String lagQuery) {
+        long id = SEQUENCE.incrementAndGet();
+        return new ReadWriteRoutingDataSource(h2("primary" + id), h2("replica" + id),
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100),
+                Duration.ofSeconds(2), Duration.ofMinutes(1), lagQuery);
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
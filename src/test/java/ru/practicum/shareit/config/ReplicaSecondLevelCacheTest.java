@@ -0,0 +1,52 @@
+package ru.practicum.shareit.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Чтение из реплики не наполняет кэш второго уровня. «Реплика» — та же встроенная H2,
+ * что и основная БД, поэтому данные на ней видны сразу.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-l2;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.url=jdbc:h2:mem:replica-l2;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.lag-query=select 0"
+})
+class ReplicaSecondLevelCacheTest {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReadWriteRoutingDataSource dataSource;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void replicaReadDoesNotFillSecondLevelCache() {
+        Long userId = userRepository.save(new User(null, "replica-l2@mail.ru", "replica-l2")).getId();
+        entityManagerFactory.getCache().evictAll();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ReadWriteRoutingDataSource.Target target = readOnly.execute(status -> {
+            userRepository.findById(userId).orElseThrow();
+            return dataSource.transactionTarget();
+        });
+
+        assertEquals(ReadWriteRoutingDataSource.Target.REPLICA, target);
+        assertFalse(entityManagerFactory.unwrap(SessionFactory.class)
+                .getSessionFactoryOptions().isSecondLevelCacheEnabled());
+        assertFalse(entityManagerFactory.getCache().contains(User.class, userId));
+    }
+}
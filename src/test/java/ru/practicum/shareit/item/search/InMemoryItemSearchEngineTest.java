@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemSavedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryItemSearchEngineTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository);
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                new Item(1L, "Набор", "Отвёртка и дрель", true, null, null, null),
+                new Item(2L, "Дрельный станок", "Простой", true, null, null, null),
+                new Item(3L, "Дрель", "Простая", true, null, null, null))));
+        engine.rebuild();
+
+        assertEquals(List.of(3L, 2L, 1L), ids(engine.search("дрель", 0, 10)));
+        assertEquals(List.of(2L), ids(engine.search("дрель", 1, 1)));
+    }
+
+    @Test
+    void updateSavedDuringRebuildIsNotOverwrittenByStalePage() {
+        when(itemRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            engine.onItemSaved(new ItemSavedEvent(new ItemDto(1L, "Пила", "Новая", true, null), 1L));
+            return new PageImpl<>(List.of(new Item(1L, "Дрель", "Старая", true, null, null, null)));
+        });
+
+        engine.rebuild();
+
+        assertEquals(List.of(), ids(engine.search("дрель", 0, 10)));
+        assertEquals(List.of(1L), ids(engine.search("пила", 0, 10)));
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Совпадение в названии важнее совпадения только в описании, независимо от порядка id.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:item-search-ranking;DB_CLOSE_DELAY=-1")
+class ItemSearchRankingTest {
+    private static final AtomicInteger OWNERS = new AtomicInteger();
+
+    @Autowired
+    private JpaItemSearchEngine jpaItemSearchEngine;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Item inDescription;
+    private Item inName;
+    private Item exactName;
+
+    @BeforeEach
+    void seed() {
+        itemRepository.deleteAll();
+        User owner = userRepository.save(new User(null, "ranking" + OWNERS.incrementAndGet() + "@mail.ru", "owner"));
+        inDescription = itemRepository.save(new Item(null, "Набор", "Отвёртка и дрель", true, owner, null, null));
+        inName = itemRepository.save(new Item(null, "Аккумуляторная дрель", "Простая", true, owner, null, null));
+        exactName = itemRepository.save(new Item(null, "Дрель", "Простая", true, owner, null, null));
+    }
+
+    @Test
+    void jpaEngineRanksNameMatchesFirst() {
+        assertEquals(List.of(exactName.getId(), inName.getId(), inDescription.getId()),
+                ids(jpaItemSearchEngine.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void jpaEngineAppliesOffsetAfterRanking() {
+        assertEquals(List.of(inName.getId()), ids(jpaItemSearchEngine.search("дрель", 1, 1)));
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+}